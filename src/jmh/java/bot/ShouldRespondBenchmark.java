@@ -0,0 +1,81 @@
+package bot;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BotCluster#shouldRespond(BotInstance, Long)} as every bot's
+ * listener calls it: from many event threads at once, for guilds whose primary
+ * is already known. Each caller asks about a random guild, once as the
+ * guild's primary and once as one of the other bots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ShouldRespondBenchmark {
+  private static final int BOTS = 4;
+  private static final int GUILDS = 10_000;
+  private static final long FIRST_GUILD_ID = 1_000_000_000_000_000L;
+
+  private BotCluster cluster;
+  private BotInstance[] bots;
+  private Long[] guildIds;
+  private BotInstance[] primaries;
+
+  /**
+   * A bot that is always connected, without a JDA session behind it.
+   */
+  private static final class ConnectedBot extends BotInstance {
+    ConnectedBot(String name) {
+      super(new BotInstanceConfig("token", "m/", null, name));
+    }
+
+    @Override
+    public boolean isHealthy() {
+      return true;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<BotInstance> instances = new ArrayList<>();
+    for (int i = 0; i < BOTS; i++) {
+      instances.add(new ConnectedBot("bot-" + i));
+    }
+    bots = instances.toArray(new BotInstance[0]);
+    cluster = new BotCluster(instances, false);
+
+    guildIds = new Long[GUILDS];
+    primaries = new BotInstance[GUILDS];
+    for (int i = 0; i < GUILDS; i++) {
+      guildIds[i] = FIRST_GUILD_ID + i;
+      primaries[i] = bots[i % BOTS];
+      cluster.setPrimary(guildIds[i], primaries[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cluster.shutdown();
+  }
+
+  @Benchmark
+  public boolean primaryCaller() {
+    int guild = ThreadLocalRandom.current().nextInt(GUILDS);
+    return cluster.shouldRespond(primaries[guild], guildIds[guild]);
+  }
+
+  @Benchmark
+  public boolean otherCaller() {
+    int guild = ThreadLocalRandom.current().nextInt(GUILDS);
+    return cluster.shouldRespond(bots[(guild + 1) % BOTS], guildIds[guild]);
+  }
+}
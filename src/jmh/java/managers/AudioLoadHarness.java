@@ -0,0 +1,258 @@
+package managers;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.dv8tion.jda.api.audio.AudioSendHandler;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load test of the audio path, no Discord connection needed.
+ * Creates guild players through VoiceManager, has them loop a stream served by
+ * a local HTTP server, and polls every guild's AudioSendHandler at the real
+ * 20 ms cadence the way JDA's send loop would. For each guild count it reports
+ * frames delivered, underruns, CPU per guild, heap use and GC pauses.
+ *
+ * <p>Options: {@code --guilds 100,500,1000} (guild counts, added incrementally),
+ * {@code --seconds 30} (measurement per step), {@code --warmup 5} (seconds before
+ * measuring), {@code --threads N} (send loop threads, default: CPU count) and
+ * {@code --file path} (loop a local audio file instead of a generated WAV stream;
+ * its bytes are repeated as they are, which suits MP3 or ADTS files).
+ */
+public final class AudioLoadHarness {
+  private static final int SAMPLE_RATE = 48000;
+  private static final int CHANNELS = 2;
+  private static final int FRAMES_PER_SECOND = 50;
+  private static final long FIRST_GUILD_ID = 1_000_000_000_000_000L;
+
+  private final LongAdder frames = new LongAdder();
+  private final LongAdder underruns = new LongAdder();
+  private final LongAdder startupMillis = new LongAdder();
+  private final LongAdder startedGuilds = new LongAdder();
+  private final AtomicLong maxGcPauseMs = new AtomicLong();
+  private final List<SimulatedGuild> guilds = new ArrayList<>();
+
+  /**
+   * One guild's end of the send loop.
+   */
+  private final class SimulatedGuild implements Runnable {
+    private final AudioSendHandler handler;
+    private final long createdNanos = System.nanoTime();
+    private boolean started; // Only touched by the polling task, which never overlaps itself
+    private ScheduledFuture<?> task;
+
+    private SimulatedGuild(AudioSendHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+      if (handler.canProvide()) {
+        ByteBuffer packet = handler.provide20MsAudio();
+        packet.position(packet.limit()); // "Send" the packet
+        frames.increment();
+        if (!started) {
+          started = true;
+          startedGuilds.increment();
+          startupMillis.add((System.nanoTime() - createdNanos) / 1_000_000);
+        }
+      } else if (started) {
+        underruns.increment(); // A frame was due but the player had none
+      }
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<Integer> steps = new ArrayList<>(List.of(100, 500, 1000));
+    int seconds = 30;
+    int warmup = 5;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path file = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--guilds" -> {
+          steps.clear();
+          for (String count : args[i + 1].split(",")) {
+            steps.add(Integer.parseInt(count.trim()));
+          }
+        }
+        case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+        case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+        case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+        case "--file" -> file = Path.of(args[i + 1]);
+        default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    new AudioLoadHarness().run(steps, seconds, warmup, threads, file);
+    System.exit(0); // lavaplayer keeps non-daemon threads around
+  }
+
+  private void run(List<Integer> steps, int seconds, int warmup, int threads, Path file) throws Exception {
+    HttpServer server = file != null
+        ? startServer(new byte[0], Files.readAllBytes(file), "application/octet-stream")
+        : startServer(wavHeader(), generatePcm(10), "audio/wav");
+    String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/stream";
+    watchGcPauses();
+
+    VoiceManager voiceManager = VoiceManager.getInstance();
+    ScheduledExecutorService sendLoop = Executors.newScheduledThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "simulated-send");
+      thread.setDaemon(true);
+      return thread;
+    });
+    OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    System.out.printf("Streaming %s to up to %d guilds, %d send threads, %d CPUs%n", url,
+        steps.get(steps.size() - 1), threads, Runtime.getRuntime().availableProcessors());
+    System.out.printf("%8s %12s %10s %10s %12s %10s %10s %10s %10s %10s%n", "guilds", "frames", "delivered",
+        "underruns", "cpu/guild", "cpu total", "startup", "heap MB", "gc ms/s", "gc max ms");
+
+    for (int target : steps) {
+      while (guilds.size() < target) {
+        long guildId = FIRST_GUILD_ID + guilds.size();
+        voiceManager.getPlayer(guildId);
+        GuildAudioManager guildManager = voiceManager.getGuildAudioManager(guildId);
+        guildManager.getScheduler().setStreamUrl(url);
+        guildManager.getScheduler().startStream();
+
+        // Spread the guilds over the 20 ms tick like independent voice connections
+        SimulatedGuild guild = new SimulatedGuild(guildManager.getSendHandler());
+        guild.task = sendLoop.scheduleAtFixedRate(guild, guilds.size() % 20, 20, TimeUnit.MILLISECONDS);
+        guilds.add(guild);
+      }
+      Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+
+      frames.reset();
+      underruns.reset();
+      maxGcPauseMs.set(0);
+      long gcTimeBefore = totalGcTimeMs();
+      long cpuBefore = os.getProcessCpuTime();
+      long wallBefore = System.nanoTime();
+      Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+      long wallNanos = System.nanoTime() - wallBefore;
+      long cpuNanos = os.getProcessCpuTime() - cpuBefore;
+      long gcTimeMs = totalGcTimeMs() - gcTimeBefore;
+
+      long delivered = frames.sum();
+      double wallSeconds = wallNanos / 1e9;
+      double expected = guilds.size() * wallSeconds * FRAMES_PER_SECOND;
+      double cpuTotal = 100.0 * cpuNanos / wallNanos; // Percent of one core
+      long started = startedGuilds.sum();
+      long heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+      System.out.printf("%8d %12d %9.2f%% %10d %11.3f%% %9.1f%% %8dms %10d %10.1f %10d%n", guilds.size(), delivered,
+          100.0 * delivered / expected, underruns.sum(), cpuTotal / guilds.size(), cpuTotal,
+          started > 0 ? startupMillis.sum() / started : 0, heapMb, gcTimeMs / wallSeconds, maxGcPauseMs.get());
+    }
+
+    for (int i = 0; i < guilds.size(); i++) {
+      guilds.get(i).task.cancel(false);
+      voiceManager.releasePlayer(FIRST_GUILD_ID + i);
+    }
+    sendLoop.shutdownNow();
+    server.stop(0);
+  }
+
+  /**
+   * Serves an endless stream: the header once, then the payload over and over
+   * until the client disconnects, like an internet radio station.
+   */
+  private static HttpServer startServer(byte[] header, byte[] payload, String contentType) throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/stream", exchange -> serveStream(exchange, header, payload, contentType));
+    server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "stream-server");
+      thread.setDaemon(true);
+      return thread;
+    }));
+    server.start();
+    return server;
+  }
+
+  private static void serveStream(HttpExchange exchange, byte[] header, byte[] payload, String contentType) {
+    try (exchange; OutputStream body = exchange.getResponseBody()) {
+      exchange.getResponseHeaders().set("Content-Type", contentType);
+      exchange.sendResponseHeaders(200, 0); // Chunked, no length
+      body.write(header);
+      while (true) {
+        body.write(payload);
+      }
+    } catch (IOException e) {
+      // Client went away
+    }
+  }
+
+  /**
+   * Generates a few seconds of 16-bit stereo PCM: a noisy chord, so the encoder does real work.
+   */
+  private static byte[] generatePcm(int seconds) {
+    int samples = SAMPLE_RATE * seconds;
+    ByteBuffer pcm = ByteBuffer.allocate(samples * CHANNELS * 2).order(ByteOrder.LITTLE_ENDIAN);
+    Random random = new Random(1);
+    for (int i = 0; i < samples; i++) {
+      double t = i / (double) SAMPLE_RATE;
+      double sample = Math.sin(2 * Math.PI * 220 * t) + 0.5 * Math.sin(2 * Math.PI * 277 * t)
+          + 0.3 * Math.sin(2 * Math.PI * 330 * t) + 0.05 * random.nextGaussian();
+      short value = (short) (sample * 6000);
+      pcm.putShort(value).putShort(value);
+    }
+    return pcm.array();
+  }
+
+  /**
+   * WAV header announcing (nearly) the largest possible data chunk, so the looped PCM plays for hours.
+   */
+  private static byte[] wavHeader() {
+    int dataSize = Integer.MAX_VALUE - 64;
+    ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+    header.put("RIFF".getBytes()).putInt(dataSize + 36).put("WAVE".getBytes());
+    header.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) CHANNELS).putInt(SAMPLE_RATE)
+        .putInt(SAMPLE_RATE * CHANNELS * 2).putShort((short) (CHANNELS * 2)).putShort((short) 16);
+    header.put("data".getBytes()).putInt(dataSize);
+    return header.array();
+  }
+
+  private void watchGcPauses() {
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (gc instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener((notification, handback) -> {
+          if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            maxGcPauseMs.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+          }
+        }, null, null);
+      }
+    }
+  }
+
+  private static long totalGcTimeMs() {
+    long total = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      total += Math.max(0, gc.getCollectionTime());
+    }
+    return total;
+  }
+}
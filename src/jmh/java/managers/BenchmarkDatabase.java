@@ -0,0 +1,49 @@
+package managers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Scratch database for benchmarks.
+ * Each trial gets a fresh SQLite file in a temp directory that is removed afterwards.
+ */
+final class BenchmarkDatabase {
+  private final Path directory;
+  private final DatabaseManager databaseManager;
+
+  private BenchmarkDatabase(Path directory) {
+    this.directory = directory;
+    this.databaseManager = new DatabaseManager(directory.resolve("bot.db").toString());
+  }
+
+  /**
+   * Creates and migrates a new scratch database.
+   *
+   * @return The scratch database
+   * @throws IOException if the temp directory cannot be created
+   */
+  static BenchmarkDatabase create() throws IOException {
+    return new BenchmarkDatabase(Files.createTempDirectory("mewbot-bench"));
+  }
+
+  DatabaseManager manager() {
+    return databaseManager;
+  }
+
+  /**
+   * Closes the database and deletes its files.
+   *
+   * @throws IOException if the files cannot be deleted
+   */
+  void destroy() throws IOException {
+    databaseManager.close();
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package managers;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates several bot instances of a cluster sharing one DatabaseManager.
+ * Sixteen threads act as four bot instances with four event threads each.
+ * Every bot serves its own range of guilds. Each operation is one listener
+ * session (start and end), a top listeners read, a command usage record and
+ * a guild volume read. A call that fails aborts the run, so a completed run
+ * also shows that the connection model holds up under concurrent use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+public class ClusterDatabaseBenchmark {
+  private static final int BOTS = 4;
+  private static final int GUILDS_PER_BOT = 250;
+  private static final int USERS = 10000;
+
+  private BenchmarkDatabase database;
+  private DatabaseManager databaseManager;
+
+  /**
+   * The bot instance an event thread belongs to.
+   */
+  @State(Scope.Thread)
+  public static class BotThread {
+    long firstGuildId;
+
+    @Setup(Level.Trial)
+    public void setUp(ThreadParams threadParams) {
+      int bot = threadParams.getThreadIndex() % BOTS;
+      firstGuildId = 1 + (long) bot * GUILDS_PER_BOT;
+    }
+
+    long randomGuild() {
+      return firstGuildId + ThreadLocalRandom.current().nextInt(GUILDS_PER_BOT);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    database = BenchmarkDatabase.create();
+    databaseManager = database.manager();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    database.destroy();
+  }
+
+  @Benchmark
+  public int botEvents(BotThread bot) {
+    long guildId = bot.randomGuild();
+    long sessionId = databaseManager.startPlaybackSession(guildId, ThreadLocalRandom.current().nextLong(1, USERS + 1));
+    databaseManager.endPlaybackSession(sessionId);
+    databaseManager.recordCommandUsage(guildId, "lofi");
+    return databaseManager.getTopListeners(guildId, 10).size() + databaseManager.getGuildVolume(guildId);
+  }
+}
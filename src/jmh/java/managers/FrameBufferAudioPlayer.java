@@ -0,0 +1,118 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.filter.PcmFilterFactory;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventListener;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AudioPlayer stand-in that serves frames from the same NonAllocatingAudioFrameBuffer
+ * the bot configures, without decoding a real track.
+ * Only the frame provider methods are implemented.
+ */
+final class FrameBufferAudioPlayer implements AudioPlayer {
+  private static final int FRAME_SIZE = 160; // Typical Opus frame at Discord's bitrate
+
+  private final NonAllocatingAudioFrameBuffer frameBuffer =
+      new NonAllocatingAudioFrameBuffer(1000, StandardAudioDataFormats.DISCORD_OPUS, new AtomicBoolean());
+  private final AudioFrame frame =
+      new ImmutableAudioFrame(0, new byte[FRAME_SIZE], 100, StandardAudioDataFormats.DISCORD_OPUS);
+
+  /**
+   * Queues one frame, as the decoder thread would.
+   */
+  void feed() throws InterruptedException {
+    frameBuffer.consume(frame);
+  }
+
+  @Override
+  public AudioFrame provide() {
+    return frameBuffer.provide();
+  }
+
+  @Override
+  public AudioFrame provide(long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+    return frameBuffer.provide(timeout, unit);
+  }
+
+  @Override
+  public boolean provide(MutableAudioFrame targetFrame) {
+    return frameBuffer.provide(targetFrame);
+  }
+
+  @Override
+  public boolean provide(MutableAudioFrame targetFrame, long timeout, TimeUnit unit)
+      throws TimeoutException, InterruptedException {
+    return frameBuffer.provide(targetFrame, timeout, unit);
+  }
+
+  @Override
+  public AudioTrack getPlayingTrack() {
+    return null;
+  }
+
+  @Override
+  public void playTrack(AudioTrack track) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean startTrack(AudioTrack track, boolean noInterrupt) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void stopTrack() {
+  }
+
+  @Override
+  public int getVolume() {
+    return 100;
+  }
+
+  @Override
+  public void setVolume(int volume) {
+  }
+
+  @Override
+  public void setFilterFactory(PcmFilterFactory factory) {
+  }
+
+  @Override
+  public void setFrameBufferDuration(Integer duration) {
+  }
+
+  @Override
+  public boolean isPaused() {
+    return false;
+  }
+
+  @Override
+  public void setPaused(boolean value) {
+  }
+
+  @Override
+  public void destroy() {
+  }
+
+  @Override
+  public void addListener(AudioEventListener listener) {
+  }
+
+  @Override
+  public void removeListener(AudioEventListener listener) {
+  }
+
+  @Override
+  public void checkCleanup(long threshold) {
+  }
+}
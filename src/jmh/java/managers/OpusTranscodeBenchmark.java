@@ -0,0 +1,103 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.filter.volume.PcmVolumeProcessor;
+import com.sedmelluq.discord.lavaplayer.natives.opus.OpusDecoder;
+import com.sedmelluq.discord.lavaplayer.natives.opus.OpusEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU one guild's player spends per 20 ms Opus frame.
+ * {@code transcode} is what lavaplayer does at any volume other than 100 (decode,
+ * apply gain, encode again); {@code passthrough} is what it does at unity gain
+ * with an Opus source (forward the frame). One guild sends 50 frames per second,
+ * so the per-guild share of a core is the score in microseconds times 50 / 1e6.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpusTranscodeBenchmark {
+  private static final int SAMPLE_RATE = 48000;
+  private static final int CHANNELS = 2;
+  private static final int FRAME_SAMPLES = 960; // 20 ms per channel
+  private static final int QUALITY = 10; // lavaplayer's default encoding quality
+  private static final int FRAME_COUNT = 50;
+
+  private byte[][] packets;
+  private int next;
+  private OpusDecoder decoder;
+  private OpusEncoder encoder;
+  private PcmVolumeProcessor volumeProcessor;
+  private ByteBuffer input;
+  private ShortBuffer pcm;
+  private ByteBuffer output;
+  private final byte[] passthroughFrame = new byte[OpusFrameRing.MAX_FRAME_SIZE];
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    decoder = new OpusDecoder(SAMPLE_RATE, CHANNELS);
+    encoder = new OpusEncoder(SAMPLE_RATE, CHANNELS, QUALITY);
+    volumeProcessor = new PcmVolumeProcessor(100);
+    input = ByteBuffer.allocateDirect(OpusFrameRing.MAX_FRAME_SIZE);
+    pcm = ByteBuffer.allocateDirect(FRAME_SAMPLES * CHANNELS * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+    output = ByteBuffer.allocateDirect(OpusFrameRing.MAX_FRAME_SIZE);
+
+    // One second of a noisy chord, encoded the way a stream would deliver it
+    packets = new byte[FRAME_COUNT][];
+    Random random = new Random(1);
+    for (int frame = 0; frame < FRAME_COUNT; frame++) {
+      pcm.clear();
+      for (int i = 0; i < FRAME_SAMPLES; i++) {
+        double t = (frame * FRAME_SAMPLES + i) / (double) SAMPLE_RATE;
+        double sample = Math.sin(2 * Math.PI * 220 * t) + 0.5 * Math.sin(2 * Math.PI * 330 * t)
+            + 0.1 * random.nextGaussian();
+        short value = (short) (sample * 8000);
+        pcm.put(value).put(value);
+      }
+      pcm.flip();
+      output.clear();
+      int length = encoder.encode(pcm, FRAME_SAMPLES, output);
+      packets[frame] = new byte[length];
+      output.get(packets[frame], 0, length);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    decoder.close();
+    encoder.close();
+  }
+
+  @Benchmark
+  public int transcode() {
+    byte[] packet = nextPacket();
+    input.clear();
+    input.put(packet).flip();
+    pcm.clear();
+    decoder.decode(input, pcm);
+    volumeProcessor.applyVolume(100, 50, pcm);
+    output.clear();
+    return encoder.encode(pcm, FRAME_SAMPLES, output);
+  }
+
+  @Benchmark
+  public int passthrough() {
+    byte[] packet = nextPacket();
+    System.arraycopy(packet, 0, passthroughFrame, 0, packet.length);
+    return packet.length;
+  }
+
+  private byte[] nextPacket() {
+    byte[] packet = packets[next];
+    next = (next + 1) % FRAME_COUNT;
+    return packet;
+  }
+}
@@ -0,0 +1,71 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-frame cost of the 20 ms audio send path.
+ * Run with {@code -prof gc} and compare gc.alloc.rate.norm (bytes per frame)
+ * between the current handler and the previous wrapping implementation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendHandlerBenchmark {
+  private FrameBufferAudioPlayer player;
+  private AudioPlayerSendHandler handler;
+  private WrappingSendHandler wrappingHandler;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    player = new FrameBufferAudioPlayer();
+    TrackScheduler scheduler = new TrackScheduler(player);
+    handler = new AudioPlayerSendHandler(player, scheduler, new StallWatchdog("benchmark", player, scheduler, 5000));
+    wrappingHandler = new WrappingSendHandler(player);
+  }
+
+  @Benchmark
+  public void reusedFrame(Blackhole blackhole) throws InterruptedException {
+    player.feed();
+    if (handler.canProvide()) {
+      blackhole.consume(handler.provide20MsAudio());
+    }
+  }
+
+  @Benchmark
+  public void wrappedFrame(Blackhole blackhole) throws InterruptedException {
+    player.feed();
+    if (wrappingHandler.canProvide()) {
+      blackhole.consume(wrappingHandler.provide20MsAudio());
+    }
+  }
+
+  /**
+   * The previous send path: a new frame from the player and a copied array per packet.
+   */
+  private static final class WrappingSendHandler {
+    private final AudioPlayer audioPlayer;
+    private AudioFrame lastFrame;
+
+    WrappingSendHandler(AudioPlayer audioPlayer) {
+      this.audioPlayer = audioPlayer;
+    }
+
+    boolean canProvide() {
+      lastFrame = audioPlayer.provide();
+      return lastFrame != null;
+    }
+
+    ByteBuffer provide20MsAudio() {
+      return ByteBuffer.wrap(lastFrame.getData());
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package managers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-event DatabaseManager calls made from command and playback paths.
+ * Each operation has a single-threaded variant and a contended variant that runs on four threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsWriteBenchmark {
+  private static final int GUILDS = 1000;
+  private static final int USERS = 10000;
+
+  private BenchmarkDatabase database;
+  private DatabaseManager databaseManager;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    database = BenchmarkDatabase.create();
+    databaseManager = database.manager();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    database.destroy();
+  }
+
+  @Benchmark
+  public void recordCommandUsage() {
+    databaseManager.recordCommandUsage(randomGuild(), "play");
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void recordCommandUsageContended() {
+    recordCommandUsage();
+  }
+
+  @Benchmark
+  public void addGuildPlaybackTime() {
+    databaseManager.addGuildPlaybackTime(randomGuild(), 1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void addGuildPlaybackTimeContended() {
+    addGuildPlaybackTime();
+  }
+
+  @Benchmark
+  public void playbackSession() {
+    long sessionId = databaseManager.startPlaybackSession(randomGuild(),
+        ThreadLocalRandom.current().nextLong(1, USERS + 1));
+    databaseManager.endPlaybackSession(sessionId);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void playbackSessionContended() {
+    playbackSession();
+  }
+
+  @Benchmark
+  public int getGuildVolume() {
+    return databaseManager.getGuildVolume(randomGuild());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int getGuildVolumeContended() {
+    return getGuildVolume();
+  }
+
+  private static long randomGuild() {
+    return ThreadLocalRandom.current().nextLong(1, GUILDS + 1);
+  }
+}
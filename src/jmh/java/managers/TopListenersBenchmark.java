@@ -0,0 +1,90 @@
+package managers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks top listener lookups against a guild with a given number of listeners.
+ * getTopListeners measures the leaderboard path the bot uses, queryTopListeners
+ * measures the SQL query behind it (board loads and limits above the board size).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopListenersBenchmark {
+  private static final long GUILD_ID = 1;
+  private static final int LIMIT = 10;
+  private static final int INSERT_BATCH = 10000;
+
+  @Param({"10", "10000", "1000000"})
+  public int listeners;
+
+  private BenchmarkDatabase database;
+  private DatabaseManager databaseManager;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, SQLException {
+    database = BenchmarkDatabase.create();
+    databaseManager = database.manager();
+    seedListeners();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    database.destroy();
+  }
+
+  /**
+   * Fills user_listening_stats for the benchmark guild with random totals.
+   */
+  private void seedListeners() throws SQLException {
+    for (int first = 1; first <= listeners; first += INSERT_BATCH) {
+      int from = first;
+      int to = Math.min(listeners, first + INSERT_BATCH - 1);
+      databaseManager.writeTransaction(conn -> {
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "INSERT INTO user_listening_stats (guild_id, user_id, total_listening_seconds) VALUES (?, ?, ?)")) {
+          for (long userId = from; userId <= to; userId++) {
+            stmt.setLong(1, GUILD_ID);
+            stmt.setLong(2, userId);
+            stmt.setLong(3, ThreadLocalRandom.current().nextLong(1, 1000000));
+            stmt.addBatch();
+          }
+          stmt.executeBatch();
+        }
+        return null;
+      });
+    }
+  }
+
+  @Benchmark
+  public List<ListenerStat> getTopListeners() {
+    return databaseManager.getTopListeners(GUILD_ID, LIMIT);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<ListenerStat> getTopListenersContended() {
+    return getTopListeners();
+  }
+
+  @Benchmark
+  public List<ListenerStat> queryTopListeners() throws SQLException {
+    return databaseManager.read(conn -> databaseManager.queryTopListeners(conn, GUILD_ID, LIMIT));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<ListenerStat> queryTopListenersContended() throws SQLException {
+    return queryTopListeners();
+  }
+}
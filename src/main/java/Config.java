@@ -260,4 +260,114 @@ public class Config {
     return getProperty("DISCORD_BOT_PREFIX_" + index,
         getProperty("DISCORD_BOT_PREFIX", "m/"));
   }
+
+  /**
+   * Gets the persistence mode for statistics events.
+   *
+   * @return "sqlite" (write-behind into the database) or "journal" (memory-mapped journal)
+   */
+  public String getStatsStorageMode() {
+    return getProperty("STATS_STORAGE_MODE",
+        properties.getProperty("stats.storage.mode", "sqlite"));
+  }
+
+  /**
+   * Checks if guilds playing the same stream should share one decoder.
+   *
+   * @return true if broadcast mode is enabled (default: false)
+   */
+  public boolean isBroadcastModeEnabled() {
+    return Boolean.parseBoolean(getProperty("VOICE_BROADCAST_MODE",
+        properties.getProperty("voice.broadcast.enabled", "false")).trim());
+  }
+
+  /**
+   * Gets how long playback continues in a channel without listeners before it is paused.
+   *
+   * @return Grace period in seconds (default: 60, 0 disables pausing)
+   */
+  public int getIdlePauseSeconds() {
+    return getNonNegativeInt("VOICE_IDLE_PAUSE_SECONDS", "voice.idle.pause.seconds", 60);
+  }
+
+  /**
+   * Gets how long playback stays paused before the guild's audio player is released.
+   *
+   * @return Idle time in minutes (default: 30, 0 keeps the player)
+   */
+  public int getIdleEvictMinutes() {
+    return getNonNegativeInt("VOICE_IDLE_EVICT_MINUTES", "voice.idle.evict.minutes", 30);
+  }
+
+  /**
+   * Gets how long a playing stream may deliver no audio before it is restarted.
+   *
+   * @return Stall threshold in milliseconds (default: 5000)
+   */
+  public int getStallThresholdMs() {
+    return getNonNegativeInt("VOICE_STALL_THRESHOLD_MS", "voice.stall.threshold.ms", 5000);
+  }
+
+  /**
+   * Gets how long a resolved stream track is reused before the URL is probed again.
+   *
+   * @return TTL in seconds, 0 disables the cache (default: 600)
+   */
+  public int getTrackCacheTtlSeconds() {
+    return getNonNegativeInt("VOICE_TRACK_CACHE_TTL_SECONDS", "voice.track.cache.ttl.seconds", 600);
+  }
+
+  /**
+   * Gets how many voice reconnects per second each bot may start after an outage.
+   *
+   * @return Reconnect attempts per second (default: 2)
+   */
+  public int getVoiceReconnectRate() {
+    return getNonNegativeInt("VOICE_RECONNECT_RATE", "voice.reconnect.rate", 2);
+  }
+
+  /**
+   * Gets how many voice connections may be opened at the same time while reconnecting.
+   *
+   * @return Maximum parallel reconnects (default: 16)
+   */
+  public int getVoiceReconnectParallelism() {
+    return getNonNegativeInt("VOICE_RECONNECT_PARALLELISM", "voice.reconnect.parallelism", 16);
+  }
+
+  /**
+   * Gets how long a bot of the cluster may be down before its guilds move to other bots.
+   *
+   * @return Failover grace period in milliseconds (default: 2000)
+   */
+  public int getFailoverGraceMs() {
+    return getNonNegativeInt("CLUSTER_FAILOVER_GRACE_MS", "cluster.failover.grace.ms", 2000);
+  }
+
+  private int getNonNegativeInt(String envKey, String propertyKey, int defaultValue) {
+    String value = getProperty(envKey, properties.getProperty(propertyKey, String.valueOf(defaultValue)));
+    try {
+      return Math.max(0, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      logger.warn("Invalid value '{}' for {}, using {}", value, propertyKey, defaultValue);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Gets how many days closed playback sessions are kept before they are
+   * folded into daily aggregates.
+   *
+   * @return Retention in days (default: 30)
+   */
+  public int getSessionRetentionDays() {
+    String value = getProperty("SESSION_RETENTION_DAYS",
+        properties.getProperty("database.session.retention.days", "30"));
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      logger.warn("Invalid session retention '{}', using 30 days", value);
+      return 30;
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package bot;
 
+import net.dv8tion.jda.api.entities.GuildVoiceState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,29 +13,95 @@ import java.util.concurrent.TimeUnit;
 /**
  * Manages a cluster of bot instances with primary/secondary failover mechanism.
  * Only the primary bot responds to commands in each guild.
+ * The primary is chosen by weighted rendezvous hashing: every healthy bot that
+ * is in the guild gets a score from the guild ID and its own name, scaled by a
+ * weight that drops as the bot gets busier (open voice connections, gateway
+ * ping, command latency), and the highest score wins. Every bot computes the
+ * same owner without coordination and guilds spread in proportion to spare
+ * capacity. A guild with an open voice connection stays with the bot that
+ * holds it. When a bot fails only its own guilds move; other moves happen at
+ * the periodic rebalance, and only if the new owner wins by a clear margin, so
+ * guilds do not flap between bots of similar load. A bot that recovers from
+ * an outage takes back the guilds that failed over away from it if it scores
+ * highest for them, regardless of that margin, so failovers do not
+ * permanently skew the spread; other guilds only move at the margin.
+ * Health and weights live in an immutable snapshot that is replaced on JDA
+ * status changes and by the health check, so the per-event path is a map
+ * lookup and a bit test, without locks or JDA calls.
+ * Failover is event driven: when a status change or session disconnect marks
+ * a bot unhealthy, another bot stands in for its guilds right away, and if the
+ * bot is still down after a short grace period (long enough for a gateway
+ * resume) its guilds are handed to their new primaries. When a bot becomes
+ * healthy again the primaries are re-elected. The periodic health check is
+ * only a backstop for missed events.
  */
 public class BotCluster {
   private static final Logger logger = LoggerFactory.getLogger(BotCluster.class);
   private static BotCluster instance;
   private final List<BotInstance> instances;
-  private final Map<Long, BotInstance> primaryBots; // Guild ID -> Primary BotInstance
-  private final Map<BotInstance, Set<Long>> botGuilds; // BotInstance -> Set of Guild IDs
+  private final long[] seeds; // Per-instance hash seed, same index as instances
+  private final Map<Long, BotInstance> primaryBots; // Guild ID -> last computed primary, for logging moves
+  private final Map<Long, BotInstance> failedOverFrom = new ConcurrentHashMap<>(); // Guild ID -> owner before failover
   private final ScheduledExecutorService healthCheckExecutor;
-  private static final long HEALTH_CHECK_INTERVAL_SECONDS = 30;
+  private static final long HEALTH_CHECK_INTERVAL_SECONDS = 30; // Backstop, failover itself is event driven
+  // Load at which a bot's weight is halved, per signal
+  private static final double VOICE_CONNECTIONS_REFERENCE = 100;
+  private static final double GATEWAY_PING_REFERENCE_MS = 250;
+  private static final double COMMAND_LATENCY_REFERENCE_MS = 1000;
+  private static final double HYSTERESIS = 0.25; // A new owner must score this much higher to take over
+  private static final long DEFAULT_FAILOVER_GRACE_MS = 2000;
+  private volatile HealthSnapshot health;
+  private final long[] downSinceNanos; // Per instance: when it went down, 0 if healthy or failed over; guarded by this
+  private volatile long failoverGraceMs = DEFAULT_FAILOVER_GRACE_MS;
+  private volatile FailoverStats failoverStats = FailoverStats.EMPTY;
+
+  /**
+   * Immutable view of which instances are healthy and how they are weighted.
+   *
+   * @param healthyMask Bit i is set if instance i is healthy
+   * @param weights     Election weight per instance, same index as instances
+   */
+  private record HealthSnapshot(long healthyMask, double[] weights) {
+    boolean isHealthy(int index) {
+      return index >= 0 && (healthyMask & (1L << index)) != 0;
+    }
+  }
 
   private BotCluster(List<BotInstance> instances) {
+    this(instances, true);
+  }
+
+  /**
+   * Creates a cluster.
+   * The bot uses the singleton; this is for benchmarks and tooling that need a cluster without a health check.
+   *
+   * @param instances        Bot instances (at most 64)
+   * @param startHealthCheck Whether to start the periodic health check
+   */
+  BotCluster(List<BotInstance> instances, boolean startHealthCheck) {
+    if (instances.size() > Long.SIZE) {
+      throw new IllegalArgumentException("A cluster supports at most " + Long.SIZE + " instances");
+    }
     this.instances = new ArrayList<>(instances);
+    this.seeds = new long[instances.size()];
+    this.downSinceNanos = new long[instances.size()];
     this.primaryBots = new ConcurrentHashMap<>();
-    this.botGuilds = new ConcurrentHashMap<>();
     this.healthCheckExecutor = Executors.newScheduledThreadPool(1);
 
-    // Initialize bot guilds mapping
-    for (BotInstance instance : instances) {
-      botGuilds.put(instance, ConcurrentHashMap.newKeySet());
+    // Seed from the bot name, so ownership survives restarts and config reordering
+    for (int i = 0; i < seeds.length; i++) {
+      this.instances.get(i).setClusterIndex(i);
+      seeds[i] = mix(this.instances.get(i).getConfig().getName().hashCode());
     }
+    double[] weights = new double[instances.size()];
+    Arrays.fill(weights, 1.0);
+    this.health = new HealthSnapshot(0, weights);
+    refreshHealth();
 
     // Start health check
-    startHealthCheck();
+    if (startHealthCheck) {
+      startHealthCheck();
+    }
   }
 
   /**
@@ -74,112 +141,343 @@ public class BotCluster {
     }
 
     // Check if this bot is healthy first
-    if (!isHealthy(botInstance)) {
+    HealthSnapshot snapshot = health;
+    if (!snapshot.isHealthy(botInstance.getClusterIndex())) {
       return false;
     }
 
+    // Keep the current primary while it is healthy, moves happen at rebalance
     BotInstance primary = primaryBots.get(guildId);
-    if (primary == null) {
-      // No primary set yet, elect this bot as primary
-      electPrimary(botInstance, guildId);
-      return true;
+    if (primary != null) {
+      if (snapshot.isHealthy(primary.getClusterIndex())) {
+        return primary == botInstance;
+      }
+      // Primary is down: stand in without moving the guild, failover or recovery settles the owner
+      return botInstance.equals(computePrimary(guildId, null, 0));
     }
+    return botInstance.equals(updatePrimary(guildId)); // New guild
+  }
+
+  /**
+   * Computes the primary bot of a guild.
+   * A bot with an open voice connection in the guild keeps it; otherwise the
+   * eligible bot with the highest weighted rendezvous score wins, unless the
+   * current primary is within the hysteresis margin of it and the winner is
+   * not one of the returning bots.
+   *
+   * @param guildId       The guild ID
+   * @param current       The current primary, or null
+   * @param returningMask Bits of bots that take their guilds back without the margin
+   * @return Primary BotInstance, or null if no healthy bot is in the guild
+   */
+  private BotInstance computePrimary(long guildId, BotInstance current, long returningMask) {
+    double[] currentWeights = health.weights();
+    BotInstance best = null;
+    int bestIndex = -1;
+    double bestScore = 0;
+    double currentScore = -1;
+    for (int i = 0; i < seeds.length; i++) {
+      BotInstance candidate = instances.get(i);
+      if (!isEligible(candidate, guildId)) {
+        continue;
+      }
+      GuildVoiceState voiceState = candidate.getJda().getGuildById(guildId).getSelfMember().getVoiceState();
+      if (voiceState != null && voiceState.inAudioChannel()) {
+        return candidate; // Moving command handling away from the streaming bot would split the guild
+      }
 
-    // Check if primary is still healthy
-    if (!isHealthy(primary)) {
-      logger.warn("Primary bot for guild {} is unhealthy, electing new primary", guildId);
-      electPrimary(botInstance, guildId);
-      // Check if this bot was elected as primary
-      return primaryBots.get(guildId).equals(botInstance);
+      double score = score(guildId, i, currentWeights[i]);
+      if (candidate.equals(current)) {
+        currentScore = score;
+      }
+      // Ties (identical names) go to the earlier instance
+      if (best == null || score > bestScore) {
+        best = candidate;
+        bestIndex = i;
+        bestScore = score;
+      }
     }
+    boolean returning = bestIndex >= 0 && (returningMask & (1L << bestIndex)) != 0;
+    if (currentScore >= 0 && bestScore < currentScore * (1 + HYSTERESIS) && !returning) {
+      return current;
+    }
+    return best;
+  }
 
-    return primary.equals(botInstance);
+  /**
+   * Weighted rendezvous score: weight / -ln(u) with u uniform in (0, 1) from the hash,
+   * so each bot wins a share of guilds proportional to its weight.
+   */
+  private double score(long guildId, int index, double weight) {
+    double uniform = ((mix(guildId ^ seeds[index]) >>> 11) + 0.5) * 0x1.0p-53;
+    return weight / -Math.log(uniform);
   }
 
   /**
-   * Elects a primary bot for a guild.
-   * Prefers the requesting bot if healthy, otherwise finds the first healthy bot.
+   * Checks if a bot can be the primary of a guild.
    *
-   * @param botInstance The bot instance requesting to be primary
+   * @param botInstance The bot instance
    * @param guildId     The guild ID
+   * @return true if the bot is healthy and in the guild
    */
-  private synchronized void electPrimary(BotInstance botInstance, Long guildId) {
-    BotInstance currentPrimary = primaryBots.get(guildId);
+  private boolean isEligible(BotInstance botInstance, long guildId) {
+    return isHealthy(botInstance) && botInstance.getJda().getGuildById(guildId) != null;
+  }
 
-    // If current primary is healthy, don't change
-    if (currentPrimary != null && isHealthy(currentPrimary)) {
-      return;
-    }
+  /**
+   * Computes the primary of a guild and records it, logging when it moved.
+   *
+   * @param guildId The guild ID
+   * @return Primary BotInstance, or null if no healthy bot is in the guild
+   */
+  private BotInstance updatePrimary(long guildId) {
+    return updatePrimary(guildId, 0);
+  }
 
-    // Prefer the requesting bot if it's healthy
-    BotInstance newPrimary = null;
-    if (isHealthy(botInstance)) {
-      newPrimary = botInstance;
-    } else {
-      // Find the first healthy bot instance
-      newPrimary = findHealthyBot();
+  /**
+   * Computes the primary of a guild and records it, logging when it moved.
+   *
+   * @param guildId       The guild ID
+   * @param returningMask Bits of bots that take their guilds back without the hysteresis margin
+   * @return Primary BotInstance, or null if no healthy bot is in the guild
+   */
+  private BotInstance updatePrimary(long guildId, long returningMask) {
+    BotInstance previous = primaryBots.get(guildId);
+    BotInstance primary = computePrimary(guildId, previous, returningMask);
+    if (primary == null) {
+      return null;
+    }
+    if (!primary.equals(previous)) {
+      primaryBots.put(guildId, primary);
+      if (previous != null) {
+        logger.info("Bot '{}' is now primary for guild {} (was '{}')", primary.getConfig().getName(), guildId,
+            previous.getConfig().getName());
+      } else {
+        logger.debug("Bot '{}' is primary for guild {}", primary.getConfig().getName(), guildId);
+      }
     }
+    return primary;
+  }
 
-    if (newPrimary == null) {
-      logger.error("No healthy bot instances available for guild {}", guildId);
-      return;
+  /**
+   * Recomputes every bot's election weight from its current load.
+   */
+  private synchronized void updateWeights() {
+    refreshHealth();
+    double[] updated = new double[instances.size()];
+    for (int i = 0; i < updated.length; i++) {
+      BotInstance botInstance = instances.get(i);
+      if (!isHealthy(botInstance)) {
+        continue; // Not eligible anyway
+      }
+      updated[i] = weight(botInstance);
+      logger.debug("Bot '{}' election weight {} ({} voice connections, {} ms ping, {} ms command latency)",
+          botInstance.getConfig().getName(), String.format("%.3f", updated[i]),
+          botInstance.getActiveVoiceConnections(), botInstance.getGatewayPing(),
+          Math.round(botInstance.getCommandLatencyMs()));
     }
+    health = new HealthSnapshot(health.healthyMask(), updated);
+  }
+
+  /**
+   * Computes a bot's election weight from its current load.
+   *
+   * @param botInstance A healthy bot instance
+   * @return Weight in (0, 1], halved for each reference load
+   */
+  private static double weight(BotInstance botInstance) {
+    double load = botInstance.getActiveVoiceConnections() / VOICE_CONNECTIONS_REFERENCE
+        + Math.max(0, botInstance.getGatewayPing()) / GATEWAY_PING_REFERENCE_MS
+        + botInstance.getCommandLatencyMs() / COMMAND_LATENCY_REFERENCE_MS;
+    return 1 / (1 + load);
+  }
+
+  /**
+   * SplitMix64 finalizer, spreads IDs and seeds over the whole 64-bit range.
+   *
+   * @param value Value to mix
+   * @return Mixed value
+   */
+  private static long mix(long value) {
+    long z = value + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
 
-    primaryBots.put(guildId, newPrimary);
-    botGuilds.get(newPrimary).add(guildId);
+  /**
+   * Checks if a bot instance is healthy according to the current snapshot.
+   *
+   * @param botInstance The bot instance to check
+   * @return true if healthy, false otherwise
+   */
+  private boolean isHealthy(BotInstance botInstance) {
+    return botInstance != null && health.isHealthy(botInstance.getClusterIndex());
+  }
 
-    if (currentPrimary != null && !currentPrimary.equals(newPrimary)) {
-      botGuilds.get(currentPrimary).remove(guildId);
-      logger.info("Elected bot '{}' as primary for guild {} (replaced '{}')", 
-          newPrimary.getConfig().getName(), guildId, 
-          currentPrimary.getConfig().getName());
-    } else if (currentPrimary == null) {
-      logger.info("Elected bot '{}' as primary for guild {}", newPrimary.getConfig().getName(), guildId);
+  /**
+   * Re-reads the status of every instance and publishes a new health snapshot.
+   * Called on JDA status changes and by the health check.
+   */
+  synchronized void refreshHealth() {
+    HealthSnapshot previous = health;
+    long now = System.nanoTime();
+    long mask = 0;
+    for (int i = 0; i < instances.size(); i++) {
+      if (instances.get(i).isHealthy()) {
+        mask |= 1L << i;
+      }
+    }
+    if (mask != previous.healthyMask()) {
+      // A bot that was down has weight 0; weigh it now instead of at the next rebalance
+      double[] weights = previous.weights().clone();
+      for (int i = 0; i < instances.size(); i++) {
+        if ((mask & (1L << i)) != 0 && !previous.isHealthy(i)) {
+          weights[i] = weight(instances.get(i));
+        }
+      }
+      health = new HealthSnapshot(mask, weights);
+      for (int i = 0; i < instances.size(); i++) {
+        if (previous.isHealthy(i) != ((mask & (1L << i)) != 0)) {
+          logger.info("Bot '{}' is now {}", instances.get(i).getConfig().getName(),
+              previous.isHealthy(i) ? "unhealthy" : "healthy");
+        }
+      }
+
+      long lost = previous.healthyMask() & ~mask;
+      long recovered = mask & ~previous.healthyMask();
+      for (int i = 0; i < instances.size(); i++) {
+        if ((lost & (1L << i)) != 0) {
+          downSinceNanos[i] = now;
+        } else if ((recovered & (1L << i)) != 0) {
+          downSinceNanos[i] = 0;
+        }
+      }
+      if (healthCheckExecutor.isShutdown()) {
+        return;
+      }
+      // Fail over once a resuming session had its chance, off the JDA event thread
+      if (lost != 0) {
+        healthCheckExecutor.schedule(() -> failover(lost, now), failoverGraceMs, TimeUnit.MILLISECONDS);
+      }
+      if (recovered != 0 && !primaryBots.isEmpty()) {
+        healthCheckExecutor.execute(() -> reelectPrimaries(recovered)); // Hand back their guilds
+      }
     }
   }
 
   /**
-   * Finds a healthy bot instance.
+   * Sets how long a bot may be down before its guilds move to other bots.
+   * Within the grace period other bots stand in for it without taking its guilds.
    *
-   * @return Healthy BotInstance or null if none available
+   * @param graceMs Grace period in milliseconds
    */
-  private BotInstance findHealthyBot() {
-    for (BotInstance instance : instances) {
-      if (isHealthy(instance)) {
-        return instance;
+  public void setFailoverGraceMs(long graceMs) {
+    this.failoverGraceMs = Math.max(0, graceMs);
+  }
+
+  /**
+   * Gets the bots that are down but still within their failover grace period.
+   *
+   * @return Bit i is set if instance i is waiting for failover
+   */
+  private synchronized long graceMask() {
+    long mask = 0;
+    for (int i = 0; i < downSinceNanos.length; i++) {
+      if (downSinceNanos[i] != 0) {
+        mask |= 1L << i;
       }
     }
-    return null;
+    return mask;
   }
 
   /**
-   * Checks if a bot instance is healthy.
+   * Re-elects the primary of every guild owned by a bot that went unhealthy and
+   * stayed down for the grace period.
    *
-   * @param botInstance The bot instance to check
-   * @return true if healthy, false otherwise
+   * @param lostMask      Bits of the bots that went unhealthy
+   * @param detectedNanos When the bots were seen going unhealthy
    */
-  private boolean isHealthy(BotInstance botInstance) {
+  private void failover(long lostMask, long detectedNanos) {
     try {
-      if (botInstance == null) {
-        return false;
+      // Skip bots that recovered, or went down again later and have their own failover pending
+      synchronized (this) {
+        for (int i = 0; i < downSinceNanos.length; i++) {
+          if ((lostMask & (1L << i)) == 0) {
+            continue;
+          }
+          if (downSinceNanos[i] == detectedNanos) {
+            downSinceNanos[i] = 0;
+          } else {
+            lostMask &= ~(1L << i);
+          }
+        }
+      }
+      if (lostMask == 0) {
+        logger.info("Bot recovered within the {} ms failover grace period, no guilds moved", failoverGraceMs);
+        return;
       }
 
-      net.dv8tion.jda.api.JDA jda = botInstance.getJda();
-      if (jda == null) {
-        return false;
+      int moved = 0;
+      int orphaned = 0;
+      for (Map.Entry<Long, BotInstance> entry : primaryBots.entrySet()) {
+        BotInstance previous = entry.getValue();
+        if ((lostMask & (1L << previous.getClusterIndex())) == 0) {
+          continue;
+        }
+        BotInstance primary = updatePrimary(entry.getKey());
+        if (primary == null) {
+          orphaned++;
+        } else if (primary != previous) {
+          failedOverFrom.putIfAbsent(entry.getKey(), previous); // Keep the original owner over repeated failovers
+          moved++;
+        }
       }
 
-      // Check if JDA is ready and connected
-      net.dv8tion.jda.api.JDA.Status status = jda.getStatus();
-      return status == net.dv8tion.jda.api.JDA.Status.CONNECTED ||
-          status == net.dv8tion.jda.api.JDA.Status.INITIALIZED ||
-          status == net.dv8tion.jda.api.JDA.Status.LOADING_SUBSYSTEMS;
+      long elapsedMs = (System.nanoTime() - detectedNanos) / 1_000_000;
+      FailoverStats current = failoverStats;
+      failoverStats = new FailoverStats(current.failovers() + 1, current.guildsMoved() + moved, elapsedMs,
+          Math.max(current.maxFailoverMs(), elapsedMs));
+      logger.info("Failover moved {} guild(s) in {} ms", moved, elapsedMs);
+      if (orphaned > 0) {
+        logger.error("No healthy bot available for {} guild(s)", orphaned);
+      }
     } catch (Exception e) {
-      logger.debug("Error checking bot health", e);
-      return false;
+      logger.error("Error during failover", e);
     }
   }
 
+  /**
+   * Gets the failover counters.
+   *
+   * @return Failover stats
+   */
+  public FailoverStats getFailoverStats() {
+    return failoverStats;
+  }
+
+  /**
+   * Forgets a guild's primary after that bot left the guild.
+   *
+   * @param botInstance The bot instance that left
+   * @param guildId     The guild ID
+   */
+  void onGuildLeave(BotInstance botInstance, long guildId) {
+    primaryBots.remove(guildId, botInstance);
+    failedOverFrom.remove(guildId, botInstance);
+  }
+
+  /**
+   * Pins the primary of a guild.
+   * For benchmarks and tooling; the bot assigns primaries through the election.
+   *
+   * @param guildId The guild ID
+   * @param primary The primary bot instance
+   */
+  void setPrimary(long guildId, BotInstance primary) {
+    primaryBots.put(guildId, primary);
+  }
+
   /**
    * Starts periodic health check for all bot instances.
    */
@@ -194,28 +492,36 @@ public class BotCluster {
   }
 
   /**
-   * Checks all primary bots and re-elects if necessary.
+   * Rebalances: refreshes the load weights and recomputes the primaries of all
+   * known guilds, applying the hysteresis margin.
    */
   private void checkAndReelectPrimaries() {
-    Set<Long> guildsToReelect = new HashSet<>();
+    updateWeights();
+    reelectPrimaries(0);
+  }
 
+  /**
+   * Recomputes the primaries of all known guilds, except those of bots within
+   * their failover grace period.
+   *
+   * @param returningMask Bits of recovered bots that take the guilds failed over away from them back
+   *                      without the hysteresis margin
+   */
+  private void reelectPrimaries(long returningMask) {
+    long grace = graceMask();
     for (Map.Entry<Long, BotInstance> entry : primaryBots.entrySet()) {
-      Long guildId = entry.getKey();
-      BotInstance primary = entry.getValue();
-
-      if (!isHealthy(primary)) {
-        guildsToReelect.add(guildId);
+      long guildId = entry.getKey();
+      if ((grace & (1L << entry.getValue().getClusterIndex())) != 0) {
+        continue; // Failover decides once the grace period is over
       }
-    }
-
-    // Re-elect primaries for unhealthy guilds
-    for (Long guildId : guildsToReelect) {
-      BotInstance newPrimary = findHealthyBot();
-      if (newPrimary != null) {
-        primaryBots.put(guildId, newPrimary);
-        logger.info("Re-elected bot '{}' as primary for guild {} due to health check",
-            newPrimary.getConfig().getName(), guildId);
-      } else {
+      // A recovered bot only skips the margin for guilds it owned before it failed
+      long returning = 0;
+      BotInstance formerOwner = failedOverFrom.get(guildId);
+      if (formerOwner != null && (returningMask & (1L << formerOwner.getClusterIndex())) != 0) {
+        returning = 1L << formerOwner.getClusterIndex();
+        failedOverFrom.remove(guildId, formerOwner);
+      }
+      if (updatePrimary(guildId, returning) == null) {
         logger.error("No healthy bot available for guild {}", guildId);
       }
     }
@@ -225,10 +531,11 @@ public class BotCluster {
    * Gets the primary bot for a guild.
    *
    * @param guildId The guild ID
-   * @return Primary BotInstance or null if not found
+   * @return Primary BotInstance or null if no healthy bot is in the guild
    */
   public BotInstance getPrimaryBot(Long guildId) {
-    return primaryBots.get(guildId);
+    BotInstance primary = primaryBots.get(guildId);
+    return primary != null && isEligible(primary, guildId) ? primary : computePrimary(guildId, null, 0);
   }
 
   /**
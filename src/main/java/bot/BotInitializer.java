@@ -1,5 +1,7 @@
 package bot;
 
+import managers.DatabaseManager;
+import managers.VoiceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +41,63 @@ public class BotInitializer {
       return;
     }
 
+    // Pick the stats persistence mode before any events are recorded
+    try {
+      java.lang.reflect.Method getStatsMode = config.getClass().getMethod("getStatsStorageMode");
+      if ("journal".equalsIgnoreCase((String) getStatsMode.invoke(config))) {
+        DatabaseManager.getInstance().enableStatsJournal();
+      }
+    } catch (Exception e) {
+      logger.warn("Failed to read stats storage mode, using sqlite", e);
+    }
+
+    // Share stream players between guilds if broadcast mode is on
+    try {
+      java.lang.reflect.Method isBroadcast = config.getClass().getMethod("isBroadcastModeEnabled");
+      VoiceManager.getInstance().setBroadcastEnabled((Boolean) isBroadcast.invoke(config));
+    } catch (Exception e) {
+      logger.warn("Failed to read broadcast mode, using per-guild players", e);
+    }
+
+    // Restart streams that stop delivering audio
+    try {
+      java.lang.reflect.Method getStallThreshold = config.getClass().getMethod("getStallThresholdMs");
+      VoiceManager.getInstance().setStallThresholdMs((Integer) getStallThreshold.invoke(config));
+    } catch (Exception e) {
+      logger.warn("Failed to read stall threshold, using default", e);
+    }
+
+    // Reuse resolved stream tracks instead of probing the URL for every load
+    try {
+      java.lang.reflect.Method getTrackCacheTtl = config.getClass().getMethod("getTrackCacheTtlSeconds");
+      VoiceManager.getInstance().getTrackCache().setTtlSeconds((Integer) getTrackCacheTtl.invoke(config));
+    } catch (Exception e) {
+      logger.warn("Failed to read track cache TTL, using default", e);
+    }
+
+    // Pace voice reconnects after outages
+    try {
+      java.lang.reflect.Method getRate = config.getClass().getMethod("getVoiceReconnectRate");
+      java.lang.reflect.Method getParallelism = config.getClass().getMethod("getVoiceReconnectParallelism");
+      VoiceManager.getInstance().getReconnectScheduler().configure((Integer) getRate.invoke(config),
+          (Integer) getParallelism.invoke(config));
+    } catch (Exception e) {
+      logger.warn("Failed to read voice reconnect settings, using defaults", e);
+    }
+
+    // Pause playback in channels nobody is listening in
+    try {
+      java.lang.reflect.Method getPauseSeconds = config.getClass().getMethod("getIdlePauseSeconds");
+      java.lang.reflect.Method getEvictMinutes = config.getClass().getMethod("getIdleEvictMinutes");
+      VoiceManager.getInstance().getPresenceTracker().configure((Integer) getPauseSeconds.invoke(config),
+          (Integer) getEvictMinutes.invoke(config));
+    } catch (Exception e) {
+      logger.warn("Failed to read idle playback settings, using defaults", e);
+    }
+
+    // Rejoin the voice channels the bot was playing in before the last shutdown
+    VoiceManager.getInstance().restoreVoiceSessions();
+
     logger.info("Starting {} bot instance(s)...", botConfigs.size());
 
     // Initialize all bot instances
@@ -50,14 +109,33 @@ public class BotInitializer {
 
     // Initialize cluster if multiple instances
     if (instances.size() > 1) {
-      BotCluster.getInstance(instances);
+      BotCluster cluster = BotCluster.getInstance(instances);
+      try {
+        java.lang.reflect.Method getGrace = config.getClass().getMethod("getFailoverGraceMs");
+        cluster.setFailoverGraceMs((Integer) getGrace.invoke(config));
+      } catch (Exception e) {
+        logger.warn("Failed to read failover grace period, using default", e);
+      }
       logger.info("Bot cluster initialized with {} instances", instances.size());
     }
 
     logger.info("All {} bot instance(s) are ready!", instances.size());
 
+    // Start playback session retention
+    int retentionDays = 30;
+    try {
+      java.lang.reflect.Method getRetention = config.getClass().getMethod("getSessionRetentionDays");
+      retentionDays = (Integer) getRetention.invoke(config);
+    } catch (Exception e) {
+      logger.warn("Failed to read session retention, using {} days", retentionDays, e);
+    }
+    DatabaseManager.getInstance().startSessionCompaction(retentionDays);
+
     // Add shutdown hook
     Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      // Remember the voice channels to rejoin before the connections go away
+      VoiceManager.getInstance().flushVoiceSessions();
+
       logger.info("Shutting down all bot instances...");
       BotCluster cluster = BotCluster.getInstance();
       if (cluster != null) {
@@ -67,6 +145,9 @@ public class BotInitializer {
           instance.shutdown();
         }
       }
+
+      // Flush buffered statistics before the JVM exits
+      DatabaseManager.getInstance().close();
     }));
   }
 
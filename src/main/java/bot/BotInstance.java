@@ -2,7 +2,11 @@ package bot;
 
 import managers.CommandManager;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.StatusChangeEvent;
+import net.dv8tion.jda.api.events.session.SessionDisconnectEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.managers.AudioManager;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,9 +16,12 @@ import org.slf4j.LoggerFactory;
  */
 public class BotInstance extends ListenerAdapter {
   private static final Logger logger = LoggerFactory.getLogger(BotInstance.class);
+  private static final double LATENCY_SMOOTHING = 0.2; // Weight of the newest sample in the moving average
   private final BotInstanceConfig config;
   private final CommandManager commandManager;
   private JDA jda;
+  private volatile double commandLatencyMs; // Exponential moving average, 0 until the first command
+  private int clusterIndex = -1; // Position in the BotCluster, -1 outside a cluster
 
   public BotInstance(BotInstanceConfig config) {
     this.config = config;
@@ -57,6 +64,39 @@ public class BotInstance extends ListenerAdapter {
     }
   }
 
+  @Override
+  public void onStatusChange(@NotNull StatusChangeEvent event) {
+    BotCluster cluster = BotCluster.getInstance();
+    if (cluster != null) {
+      cluster.refreshHealth();
+    }
+  }
+
+  @Override
+  public void onSessionDisconnect(@NotNull SessionDisconnectEvent event) {
+    // Usually followed by a status change, but fail over as soon as the socket is gone
+    BotCluster cluster = BotCluster.getInstance();
+    if (cluster != null) {
+      cluster.refreshHealth();
+    }
+  }
+
+  @Override
+  public void onGuildLeave(@NotNull GuildLeaveEvent event) {
+    BotCluster cluster = BotCluster.getInstance();
+    if (cluster != null) {
+      cluster.onGuildLeave(this, event.getGuild().getIdLong());
+    }
+  }
+
+  int getClusterIndex() {
+    return clusterIndex;
+  }
+
+  void setClusterIndex(int clusterIndex) {
+    this.clusterIndex = clusterIndex;
+  }
+
   /**
    * Gets the JDA instance for this bot.
    *
@@ -103,6 +143,47 @@ public class BotInstance extends ListenerAdapter {
     }
   }
 
+  /**
+   * Records how long this bot took to handle a command, measured locally so clock skew with Discord does not count.
+   *
+   * @param latencyMs Command latency in milliseconds
+   */
+  public void recordCommandLatency(long latencyMs) {
+    // Racy read-modify-write is fine for a smoothed load signal
+    double current = commandLatencyMs;
+    commandLatencyMs = current == 0 ? latencyMs : current + LATENCY_SMOOTHING * (latencyMs - current);
+  }
+
+  /**
+   * Gets the recent command latency.
+   *
+   * @return Moving average of command latency in milliseconds, 0 if no command was handled yet
+   */
+  public double getCommandLatencyMs() {
+    return commandLatencyMs;
+  }
+
+  /**
+   * Gets the gateway heartbeat ping.
+   *
+   * @return Ping in milliseconds, -1 if not connected yet
+   */
+  public long getGatewayPing() {
+    return jda != null ? jda.getGatewayPing() : -1;
+  }
+
+  /**
+   * Counts the voice channels this bot is connected to.
+   *
+   * @return Number of open voice connections
+   */
+  public int getActiveVoiceConnections() {
+    if (jda == null) {
+      return 0;
+    }
+    return (int) jda.getAudioManagerCache().stream().filter(AudioManager::isConnected).count();
+  }
+
   /**
    * Shuts down this bot instance.
    */
@@ -0,0 +1,15 @@
+package bot;
+
+/**
+ * Failover counters of the bot cluster.
+ * A failover starts when a bot is seen going unhealthy and ends once its guilds have new primaries,
+ * so its duration includes the grace period in which the bot may resume its session.
+ *
+ * @param failovers       Number of failovers handled
+ * @param guildsMoved     Total guilds moved to another bot by failovers
+ * @param lastFailoverMs  Duration of the most recent failover in milliseconds
+ * @param maxFailoverMs   Longest failover in milliseconds
+ */
+public record FailoverStats(long failovers, long guildsMoved, long lastFailoverMs, long maxFailoverMs) {
+  public static final FailoverStats EMPTY = new FailoverStats(0, 0, 0, 0);
+}
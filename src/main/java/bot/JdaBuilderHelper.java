@@ -1,5 +1,6 @@
 package bot;
 
+import listeners.ListenerPresenceListener;
 import listeners.MessageCommandListener;
 import listeners.SlashCommandListener;
 import listeners.VoiceReconnectListener;
@@ -38,11 +39,14 @@ public class JdaBuilderHelper {
 
     VoiceReconnectListener voiceReconnectListener = new VoiceReconnectListener();
     VoiceTrackingListener voiceTrackingListener = new VoiceTrackingListener();
+    ListenerPresenceListener presenceListener = new ListenerPresenceListener();
 
     return JDABuilder.createDefault(token)
         .setActivity(activity)
-        .addEventListeners(slashListener, messageListener, voiceReconnectListener, voiceTrackingListener)
-        .setMemberCachePolicy(MemberCachePolicy.NONE)
+        .addEventListeners(slashListener, messageListener, voiceReconnectListener, voiceTrackingListener,
+            presenceListener)
+        // Members in voice are cached so the bot can tell whether anyone is listening
+        .setMemberCachePolicy(MemberCachePolicy.VOICE)
         .enableIntents(
             GatewayIntent.GUILD_VOICE_STATES,
             GatewayIntent.MESSAGE_CONTENT)
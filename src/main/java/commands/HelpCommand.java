@@ -74,8 +74,9 @@ public class HelpCommand extends Command {
         "lofi", "Play lofi music 24/7 in your voice channel",
         "leave", "Make the bot leave the voice channel",
         "volume", "Set or check the audio volume (0-100)",
+        "lowcpu", "Play without re-encoding audio (fixes the volume at 100%)",
         "focus", "Mute all users in voice channel (focus mode - only bot plays)",
-        "stats", "Show server statistics (playback time and command usage)",
+        "stats", "Show server statistics (playback time and command usage) for 24h, 7d, 30d or all",
         "me", "Show your listening statistics and top listeners",
         "help", "Show this help message"
     );
@@ -7,6 +7,7 @@ import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import managers.DatabaseManager;
 import managers.VoiceManager;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -18,6 +19,9 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Command to play lofi music 24/7 from a stream URL.
  */
@@ -25,6 +29,7 @@ public class LofiCommand extends Command {
   private static final Logger logger = LoggerFactory.getLogger(LofiCommand.class);
   private static final String LOFI_STREAM_URL = "https://lofi4u.com/api/stream/live";
   private static final String SUCCESS_MESSAGE = "🎵 **Now playing lofi music 24/7!**\n\nThe bot will stay connected until kicked or `/leave` is used.";
+  private static final String STREAM_DOWN_MESSAGE = "📡 The lofi stream is down right now. Playback starts on its own as soon as it is back.";
 
   @Override
   @NotNull
@@ -67,13 +72,30 @@ public class LofiCommand extends Command {
 
     // Connect to voice channel (or reconnect if already connected)
     if (!voiceManager.isConnected(event.getGuild())) {
-      if (!voiceManager.connectToVoiceChannel(voiceChannel)) {
+      if (!voiceManager.connectToVoiceChannel(voiceChannel, voiceManager.isBroadcastEnabled())) {
         event.replyEmbeds(EmbedUtils.createErrorEmbed("Failed to connect to voice channel!", event.getUser()))
             .setEphemeral(true).queue();
         return;
       }
     }
 
+    // Broadcast mode: join the shared stream instead of loading it for this guild
+    if (voiceManager.isBroadcastEnabled()) {
+      event.deferReply().queue();
+      startBroadcast(event.getGuild())
+          .thenAccept(volume -> {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getUser())).queue();
+            logger.info("Joined lofi broadcast in guild: {} at {}% volume", event.getGuild().getName(), volume);
+          })
+          .exceptionally(error -> {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                "❌ Failed to load the audio stream: " + failureMessage(error), event.getUser())).queue();
+            logger.error("Failed to load lofi stream", error);
+            return null;
+          });
+      return;
+    }
+
     // Get the audio player and scheduler for this guild
     AudioPlayer player = voiceManager.getPlayer(event.getGuild());
     managers.GuildAudioManager guildManager = voiceManager.getGuildAudioManager(event.getGuild());
@@ -81,41 +103,52 @@ public class LofiCommand extends Command {
     // Set up looping for the stream
     if (guildManager != null) {
       guildManager.getScheduler().setStreamUrl(LOFI_STREAM_URL);
+      voiceManager.saveVoiceSession(event.getGuild());
     }
 
     // Load and play the lofi stream
     event.deferReply().queue();
 
-    voiceManager.getPlayerManager().loadItemOrdered(player, LOFI_STREAM_URL, new AudioLoadResultHandler() {
-      @Override
-      public void trackLoaded(AudioTrack track) {
-        // Start playing the track
-        player.startTrack(track, false);
+    // Fetch the stored volume while the stream is loading
+    CompletableFuture<Integer> volumeFuture = fetchVolume(event.getGuild().getIdLong());
 
-        // Set volume from database (default 50%)
-        int volume = DatabaseManager.getInstance().getGuildVolume(event.getGuild().getId());
+    // The stream is known to be down: wait for the reconnect coordinator's probe instead of loading it again
+    if (guildManager != null && voiceManager.getReconnectCoordinator().isCircuitOpen(LOFI_STREAM_URL)) {
+      volumeFuture.thenAccept(volume -> {
         player.setVolume(volume);
+        guildManager.getScheduler().reloadStream();
+        event.getHook().editOriginalEmbeds(EmbedUtils.createWarningEmbed(STREAM_DOWN_MESSAGE, event.getUser())).queue();
+      });
+      return;
+    }
 
-        event.getHook().editOriginalEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getUser())).queue();
-        logger.info("Started playing lofi stream in guild: {} at {}% volume", event.getGuild().getName(), volume);
+    voiceManager.getTrackCache().load(LOFI_STREAM_URL, new AudioLoadResultHandler() {
+      @Override
+      public void trackLoaded(AudioTrack track) {
+        // Set volume from database (default 50%), then start playing the track
+        volumeFuture.thenAccept(volume -> {
+          player.setVolume(volume);
+          player.startTrack(track, false);
+
+          event.getHook().editOriginalEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getUser())).queue();
+          logger.info("Started playing lofi stream in guild: {} at {}% volume", event.getGuild().getName(), volume);
+        });
       }
 
       @Override
       public void playlistLoaded(AudioPlaylist playlist) {
         // If it's a playlist, play the first track
         AudioTrack firstTrack = playlist.getSelectedTrack();
-        if (firstTrack == null) {
-          firstTrack = playlist.getTracks().get(0);
-        }
-
-        player.startTrack(firstTrack, false);
-        
-        // Set volume from database (default 50%)
-        int volume = DatabaseManager.getInstance().getGuildVolume(event.getGuild().getId());
-        player.setVolume(volume);
+        AudioTrack trackToPlay = firstTrack != null ? firstTrack : playlist.getTracks().get(0);
 
-        event.getHook().editOriginalEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getUser())).queue();
-        logger.info("Started playing lofi playlist in guild: {} at {}% volume", event.getGuild().getName(), volume);
+        // Set volume from database (default 50%), then start playing the track
+        volumeFuture.thenAccept(volume -> {
+          player.setVolume(volume);
+          player.startTrack(trackToPlay, false);
+
+          event.getHook().editOriginalEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getUser())).queue();
+          logger.info("Started playing lofi playlist in guild: {} at {}% volume", event.getGuild().getName(), volume);
+        });
       }
 
       @Override
@@ -172,7 +205,7 @@ public class LofiCommand extends Command {
 
     // Connect to voice channel (or reconnect if already connected)
     if (!voiceManager.isConnected(event.getGuild())) {
-      if (!voiceManager.connectToVoiceChannel(voiceChannel)) {
+      if (!voiceManager.connectToVoiceChannel(voiceChannel, voiceManager.isBroadcastEnabled())) {
         event.getMessage()
             .replyEmbeds(EmbedUtils.createErrorEmbed("Failed to connect to voice channel!", event.getAuthor()))
             .queue();
@@ -180,6 +213,24 @@ public class LofiCommand extends Command {
       }
     }
 
+    // Broadcast mode: join the shared stream instead of loading it for this guild
+    if (voiceManager.isBroadcastEnabled()) {
+      event.getMessage()
+          .replyEmbeds(EmbedUtils.createInfoEmbed("⏳ Loading lofi stream...", event.getAuthor()))
+          .queue(reply -> startBroadcast(event.getGuild())
+              .thenAccept(volume -> {
+                reply.editMessageEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getAuthor())).queue();
+                logger.info("Joined lofi broadcast in guild: {} at {}% volume", event.getGuild().getName(), volume);
+              })
+              .exceptionally(error -> {
+                reply.editMessageEmbeds(EmbedUtils.createErrorEmbed(
+                    "❌ Failed to load the audio stream: " + failureMessage(error), event.getAuthor())).queue();
+                logger.error("Failed to load lofi stream", error);
+                return null;
+              }));
+      return;
+    }
+
     // Get the audio player and scheduler for this guild
     AudioPlayer player = voiceManager.getPlayer(event.getGuild());
     managers.GuildAudioManager guildManager = voiceManager.getGuildAudioManager(event.getGuild());
@@ -187,6 +238,20 @@ public class LofiCommand extends Command {
     // Set up looping for the stream
     if (guildManager != null) {
       guildManager.getScheduler().setStreamUrl(LOFI_STREAM_URL);
+      voiceManager.saveVoiceSession(event.getGuild());
+    }
+
+    // Fetch the stored volume while the stream is loading
+    CompletableFuture<Integer> volumeFuture = fetchVolume(event.getGuild().getIdLong());
+
+    // The stream is known to be down: wait for the reconnect coordinator's probe instead of loading it again
+    if (guildManager != null && voiceManager.getReconnectCoordinator().isCircuitOpen(LOFI_STREAM_URL)) {
+      volumeFuture.thenAccept(volume -> {
+        player.setVolume(volume);
+        guildManager.getScheduler().reloadStream();
+        event.getMessage().replyEmbeds(EmbedUtils.createWarningEmbed(STREAM_DOWN_MESSAGE, event.getAuthor())).queue();
+      });
+      return;
     }
 
     // Send initial message
@@ -194,34 +259,34 @@ public class LofiCommand extends Command {
         .replyEmbeds(EmbedUtils.createInfoEmbed("⏳ Loading lofi stream...", event.getAuthor()))
         .queue(reply -> {
           // Load and play the lofi stream
-          voiceManager.getPlayerManager().loadItemOrdered(player, LOFI_STREAM_URL,
+          voiceManager.getTrackCache().load(LOFI_STREAM_URL,
               new AudioLoadResultHandler() {
                 @Override
                 public void trackLoaded(AudioTrack track) {
-                  player.startTrack(track, false);
-                  
-                  // Set volume from database (default 50%)
-                  int volume = DatabaseManager.getInstance().getGuildVolume(event.getGuild().getId());
-                  player.setVolume(volume);
-                  
-                  reply.editMessageEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getAuthor())).queue();
-                  logger.info("Started playing lofi stream in guild: {} at {}% volume", event.getGuild().getName(), volume);
+                  // Set volume from database (default 50%), then start playing the track
+                  volumeFuture.thenAccept(volume -> {
+                    player.setVolume(volume);
+                    player.startTrack(track, false);
+
+                    reply.editMessageEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getAuthor())).queue();
+                    logger.info("Started playing lofi stream in guild: {} at {}% volume", event.getGuild().getName(),
+                        volume);
+                  });
                 }
 
                 @Override
                 public void playlistLoaded(AudioPlaylist playlist) {
                   AudioTrack firstTrack = playlist.getSelectedTrack();
-                  if (firstTrack == null) {
-                    firstTrack = playlist.getTracks().get(0);
-                  }
-                  player.startTrack(firstTrack, false);
-                  
-                  // Set volume from database (default 50%)
-                  int volume = DatabaseManager.getInstance().getGuildVolume(event.getGuild().getId());
-                  player.setVolume(volume);
-                  
-                  reply.editMessageEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getAuthor())).queue();
-                  logger.info("Started playing lofi playlist in guild: {}", event.getGuild().getName());
+                  AudioTrack trackToPlay = firstTrack != null ? firstTrack : playlist.getTracks().get(0);
+
+                  // Set volume from database (default 50%), then start playing the track
+                  volumeFuture.thenAccept(volume -> {
+                    player.setVolume(volume);
+                    player.startTrack(trackToPlay, false);
+
+                    reply.editMessageEmbeds(EmbedUtils.createMusicEmbed(SUCCESS_MESSAGE, event.getAuthor())).queue();
+                    logger.info("Started playing lofi playlist in guild: {}", event.getGuild().getName());
+                  });
                 }
 
                 @Override
@@ -240,4 +305,42 @@ public class LofiCommand extends Command {
               });
         });
   }
+
+  /**
+   * Joins the shared lofi broadcast at the guild's stored volume.
+   *
+   * @param guild The guild (already connected to a voice channel)
+   * @return Future with the volume the guild plays at
+   */
+  private CompletableFuture<Integer> startBroadcast(Guild guild) {
+    return fetchVolume(guild.getIdLong())
+        .thenCompose(volume -> VoiceManager.getInstance().playBroadcast(guild, LOFI_STREAM_URL, volume)
+            .thenApply(ignored -> volume));
+  }
+
+  /**
+   * Gets a user-facing message for a failed stream load.
+   *
+   * @param error The failure, possibly wrapped by a CompletableFuture stage
+   * @return Failure message
+   */
+  private static String failureMessage(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    return cause.getMessage();
+  }
+
+  /**
+   * Looks up the guild's playback volume (unity gain in low CPU mode) without blocking the calling thread.
+   * Falls back to the default volume if the lookup fails.
+   *
+   * @param guildId The guild ID
+   * @return Future with the volume (0-100)
+   */
+  private CompletableFuture<Integer> fetchVolume(long guildId) {
+    return DatabaseManager.getInstance().async().getGuildPlaybackVolume(guildId)
+        .exceptionally(error -> {
+          logger.warn("Failed to load volume for guild {}, using default", guildId, error);
+          return DatabaseManager.DEFAULT_VOLUME;
+        });
+  }
 }
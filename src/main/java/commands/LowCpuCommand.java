@@ -0,0 +1,126 @@
+package commands;
+
+import managers.VoiceManager;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import utils.EmbedUtils;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Command to turn low CPU mode on or off.
+ * In low CPU mode the bot plays at 100% volume, where the audio does not need
+ * to be re-encoded, at the cost of volume control.
+ */
+public class LowCpuCommand extends Command {
+  private static final Logger logger = LoggerFactory.getLogger(LowCpuCommand.class);
+
+  @Override
+  @NotNull
+  public SlashCommandData getCommandData() {
+    return Commands.slash("lowcpu", "Play without re-encoding audio (fixes the volume at 100%)")
+        .addOption(OptionType.BOOLEAN, "enabled", "Turn low CPU mode on or off. Leave empty to check it.", false);
+  }
+
+  @Override
+  public void execute(@NotNull SlashCommandInteractionEvent event) {
+    if (!event.isFromGuild()) {
+      event.replyEmbeds(EmbedUtils.createErrorEmbed("This command can only be used in a server!", event.getUser()))
+          .setEphemeral(true).queue();
+      return;
+    }
+
+    Boolean enabled = event.getOption("enabled", null, opt -> opt.getAsBoolean());
+    if (enabled == null) {
+      event.deferReply().queue();
+      statusEmbed(event.getGuild(), event.getUser())
+          .exceptionally(error -> EmbedUtils.createErrorEmbed("Failed to read low CPU mode!", event.getUser()))
+          .thenAccept(embed -> event.getHook().editOriginalEmbeds(embed).queue());
+      return;
+    }
+
+    event.deferReply().queue();
+    setLowCpu(event.getGuild(), enabled)
+        .thenAccept(volume -> event.getHook().editOriginalEmbeds(resultEmbed(enabled, volume, event.getUser())).queue())
+        .exceptionally(error -> {
+          event.getHook().editOriginalEmbeds(
+              EmbedUtils.createErrorEmbed("Failed to change low CPU mode!", event.getUser())).queue();
+          return null;
+        });
+  }
+
+  @Override
+  public void executeMessage(@NotNull MessageReceivedEvent event, @NotNull String args) {
+    if (!event.isFromGuild()) {
+      event.getMessage().replyEmbeds(EmbedUtils.createErrorEmbed("This command can only be used in a server!", event.getAuthor()))
+          .queue();
+      return;
+    }
+
+    String arg = args.trim().toLowerCase();
+    if (arg.isEmpty()) {
+      statusEmbed(event.getGuild(), event.getAuthor())
+          .exceptionally(error -> EmbedUtils.createErrorEmbed("Failed to read low CPU mode!", event.getAuthor()))
+          .thenAccept(embed -> event.getMessage().replyEmbeds(embed).queue());
+      return;
+    }
+
+    boolean enabled;
+    if ("on".equals(arg)) {
+      enabled = true;
+    } else if ("off".equals(arg)) {
+      enabled = false;
+    } else {
+      event.getMessage().replyEmbeds(EmbedUtils.createErrorEmbed("Invalid option! Use 'on' or 'off'.", event.getAuthor()))
+          .queue();
+      return;
+    }
+
+    setLowCpu(event.getGuild(), enabled)
+        .thenAccept(volume -> event.getMessage().replyEmbeds(resultEmbed(enabled, volume, event.getAuthor())).queue())
+        .exceptionally(error -> {
+          event.getMessage().replyEmbeds(
+              EmbedUtils.createErrorEmbed("Failed to change low CPU mode!", event.getAuthor())).queue();
+          return null;
+        });
+  }
+
+  private CompletableFuture<Integer> setLowCpu(Guild guild, boolean enabled) {
+    return VoiceManager.getInstance().setLowCpu(guild, enabled).whenComplete((volume, error) -> {
+      if (error != null) {
+        logger.error("Failed to change low CPU mode for guild: {}", guild.getName(), error);
+      }
+    });
+  }
+
+  private CompletableFuture<MessageEmbed> statusEmbed(Guild guild, User user) {
+    return VoiceManager.getInstance().isLowCpu(guild)
+        .whenComplete((lowCpu, error) -> {
+          if (error != null) {
+            logger.error("Failed to read low CPU mode for guild: {}", guild.getName(), error);
+          }
+        })
+        .thenApply(lowCpu -> {
+          String message = lowCpu
+              ? "🔋 **Low CPU mode is on** (volume fixed at 100%)"
+              : "🔋 **Low CPU mode is off**";
+          return EmbedUtils.createInfoEmbed(message, user);
+        });
+  }
+
+  private MessageEmbed resultEmbed(boolean enabled, int volume, User user) {
+    String message = enabled
+        ? "🔋 **Low CPU mode on**, volume is fixed at 100%"
+        : String.format("🔋 **Low CPU mode off**, volume is back at %d%%", volume);
+    return EmbedUtils.createSuccessEmbed(message, user);
+  }
+}
@@ -1,6 +1,9 @@
 package commands;
 
+import managers.AsyncDatabase;
 import managers.DatabaseManager;
+import managers.ListenerStat;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
@@ -8,14 +11,18 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 import utils.EmbedUtils;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Command to display personal statistics and top listeners.
  */
 public class MeCommand extends Command {
+  private static final Logger logger = LoggerFactory.getLogger(MeCommand.class);
+
   @Override
   @NotNull
   public SlashCommandData getCommandData() {
@@ -30,64 +37,22 @@ public class MeCommand extends Command {
       return;
     }
 
-    DatabaseManager db = DatabaseManager.getInstance();
-    String guildId = event.getGuild().getId();
-    String userId = event.getUser().getId();
-
-    // Get user's listening time
-    long listeningSeconds = db.getUserListeningTime(guildId, userId);
-
-    // Get top listeners
-    List<Map<String, Object>> topListeners = db.getTopListeners(guildId, 10);
-
-    // Format user's listening time
-    long hours = listeningSeconds / 3600;
-    long minutes = (listeningSeconds % 3600) / 60;
-    long seconds = listeningSeconds % 60;
-    String listeningTime = String.format("%d giờ %d phút %d giây", hours, minutes, seconds);
-    if (hours == 0 && minutes == 0) {
-      listeningTime = String.format("%d giây", seconds);
-    } else if (hours == 0) {
-      listeningTime = String.format("%d phút %d giây", minutes, seconds);
-    }
-
-    // Build response
-    StringBuilder sb = new StringBuilder();
-    sb.append("👤 **Thống kê cá nhân**\n\n");
-    sb.append("🎧 **Thời gian nghe nhạc của bạn:**\n");
-    sb.append("└ ").append(listeningTime).append("\n\n");
-
-    if (!topListeners.isEmpty()) {
-      sb.append("🏆 **Top người nghe nhạc nhiều nhất:**\n");
-      int rank = 1;
-      for (Map<String, Object> entry : topListeners) {
-        String topUserId = (String) entry.get("user_id");
-        long topSeconds = (Long) entry.get("total_listening_seconds");
-        
-        // Format time
-        long topHours = topSeconds / 3600;
-        long topMinutes = (topSeconds % 3600) / 60;
-        String topTime = String.format("%d giờ %d phút", topHours, topMinutes);
-        if (topHours == 0) {
-          topTime = String.format("%d phút", topMinutes);
-        }
-
-        // Get user mention
-        User topUser = event.getJDA().getUserById(topUserId);
-        String userMention = topUser != null ? topUser.getAsMention() : "<@" + topUserId + ">";
-
-        String medal = rank == 1 ? "🥇" : rank == 2 ? "🥈" : rank == 3 ? "🥉" : "•";
-        sb.append(medal).append(" ").append(rank).append(". ").append(userMention)
-            .append(" - ").append(topTime).append("\n");
-        
-        rank++;
-        if (rank > 10) break;
-      }
-    }
-
-    event.replyEmbeds(EmbedUtils.createEmbed("👤 **Personal Statistics**", sb.toString(), EmbedUtils.COLOR_INFO, event.getUser()))
-        .setEphemeral(false)
-        .queue();
+    long guildId = event.getGuild().getIdLong();
+    long userId = event.getUser().getIdLong();
+
+    // Defer while the statistics are read off the event thread
+    event.deferReply().queue();
+
+    fetchStats(event.getJDA(), guildId, userId)
+        .thenAccept(message -> event.getHook().editOriginalEmbeds(
+            EmbedUtils.createEmbed("👤 **Personal Statistics**", message, EmbedUtils.COLOR_INFO, event.getUser()))
+            .queue())
+        .exceptionally(error -> {
+          logger.error("Failed to load personal statistics for user {} in guild {}", userId, guildId, error);
+          event.getHook().editOriginalEmbeds(
+              EmbedUtils.createErrorEmbed("❌ Failed to load your statistics!", event.getUser())).queue();
+          return null;
+        });
   }
 
   @Override
@@ -98,16 +63,46 @@ public class MeCommand extends Command {
       return;
     }
 
-    DatabaseManager db = DatabaseManager.getInstance();
-    String guildId = event.getGuild().getId();
-    String userId = event.getAuthor().getId();
-
-    // Get user's listening time
-    long listeningSeconds = db.getUserListeningTime(guildId, userId);
+    long guildId = event.getGuild().getIdLong();
+    long userId = event.getAuthor().getIdLong();
+
+    fetchStats(event.getJDA(), guildId, userId)
+        .thenAccept(message -> event.getMessage().replyEmbeds(
+            EmbedUtils.createEmbed("👤 **Personal Statistics**", message, EmbedUtils.COLOR_INFO, event.getAuthor()))
+            .queue())
+        .exceptionally(error -> {
+          logger.error("Failed to load personal statistics for user {} in guild {}", userId, guildId, error);
+          event.getMessage().replyEmbeds(
+              EmbedUtils.createErrorEmbed("❌ Failed to load your statistics!", event.getAuthor())).queue();
+          return null;
+        });
+  }
 
-    // Get top listeners
-    List<Map<String, Object>> topListeners = db.getTopListeners(guildId, 10);
+  /**
+   * Loads the personal statistics and leaderboard asynchronously and formats them.
+   *
+   * @param jda     The JDA instance (for resolving users)
+   * @param guildId The guild ID
+   * @param userId  The user ID
+   * @return Future with the formatted statistics message
+   */
+  private CompletableFuture<String> fetchStats(JDA jda, long guildId, long userId) {
+    AsyncDatabase db = DatabaseManager.getInstance().async();
+    CompletableFuture<Long> listeningFuture = db.getUserListeningTime(guildId, userId);
+    CompletableFuture<List<ListenerStat>> topFuture = db.getTopListeners(guildId, 10);
+    return listeningFuture.thenCombine(topFuture,
+        (listeningSeconds, topListeners) -> buildStatsMessage(jda, listeningSeconds, topListeners));
+  }
 
+  /**
+   * Builds the personal statistics message.
+   *
+   * @param jda              The JDA instance (for resolving users)
+   * @param listeningSeconds The user's total listening seconds
+   * @param topListeners     Top listeners of the guild
+   * @return Formatted statistics message
+   */
+  private String buildStatsMessage(JDA jda, long listeningSeconds, List<ListenerStat> topListeners) {
     // Format user's listening time
     long hours = listeningSeconds / 3600;
     long minutes = (listeningSeconds % 3600) / 60;
@@ -128,9 +123,9 @@ public class MeCommand extends Command {
     if (!topListeners.isEmpty()) {
       sb.append("🏆 **Top người nghe nhạc nhiều nhất:**\n");
       int rank = 1;
-      for (Map<String, Object> entry : topListeners) {
-        String topUserId = (String) entry.get("user_id");
-        long topSeconds = (Long) entry.get("total_listening_seconds");
+      for (ListenerStat entry : topListeners) {
+        long topUserId = entry.userId();
+        long topSeconds = entry.totalListeningSeconds();
         
         // Format time
         long topHours = topSeconds / 3600;
@@ -141,7 +136,7 @@ public class MeCommand extends Command {
         }
 
         // Get user mention
-        User topUser = event.getJDA().getUserById(topUserId);
+        User topUser = jda.getUserById(topUserId);
         String userMention = topUser != null ? topUser.getAsMention() : "<@" + topUserId + ">";
 
         String medal = rank == 1 ? "🥇" : rank == 2 ? "🥈" : rank == 3 ? "🥉" : "•";
@@ -153,8 +148,6 @@ public class MeCommand extends Command {
       }
     }
 
-    event.getMessage().replyEmbeds(EmbedUtils.createEmbed("👤 **Personal Statistics**", sb.toString(), EmbedUtils.COLOR_INFO, event.getAuthor()))
-        .queue();
+    return sb.toString();
   }
 }
-
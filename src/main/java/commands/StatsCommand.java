@@ -1,21 +1,37 @@
 package commands;
 
+import managers.AsyncDatabase;
 import managers.DatabaseManager;
+import managers.GuildStats;
+import managers.StatsWindow;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 import utils.EmbedUtils;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Command to display server statistics.
  */
 public class StatsCommand extends Command {
+  private static final Logger logger = LoggerFactory.getLogger(StatsCommand.class);
+
   @Override
   @NotNull
   public SlashCommandData getCommandData() {
-    return Commands.slash("stats", "Show server statistics (playback time and command usage)");
+    return Commands.slash("stats", "Show server statistics (playback time and command usage)")
+        .addOptions(new OptionData(OptionType.STRING, "window", "Time window (default: all time)", false)
+            .addChoice("Last 24 hours", StatsWindow.LAST_24_HOURS.getKey())
+            .addChoice("Last 7 days", StatsWindow.LAST_7_DAYS.getKey())
+            .addChoice("Last 30 days", StatsWindow.LAST_30_DAYS.getKey())
+            .addChoice("All time", StatsWindow.ALL_TIME.getKey()));
   }
 
   @Override
@@ -26,37 +42,25 @@ public class StatsCommand extends Command {
       return;
     }
 
-    DatabaseManager db = DatabaseManager.getInstance();
-    String guildId = event.getGuild().getId();
-
-    // Get statistics
-    long playbackSeconds = db.getGuildPlaybackTime(guildId);
-    long commandUsage = db.getTotalCommandUsage(guildId);
-
-    // Format playback time
-    long hours = playbackSeconds / 3600;
-    long minutes = (playbackSeconds % 3600) / 60;
-    long seconds = playbackSeconds % 60;
-    String playbackTime = String.format("%d giờ %d phút %d giây", hours, minutes, seconds);
-    if (hours == 0 && minutes == 0) {
-      playbackTime = String.format("%d giây", seconds);
-    } else if (hours == 0) {
-      playbackTime = String.format("%d phút %d giây", minutes, seconds);
+    long guildId = event.getGuild().getIdLong();
+    StatsWindow window = StatsWindow.fromKey(event.getOption("window", null, opt -> opt.getAsString()));
+    if (window == null) {
+      window = StatsWindow.ALL_TIME;
     }
 
-    // Build response
-    StringBuilder sb = new StringBuilder();
-    sb.append("📊 **Thống kê Server**\n\n");
-    sb.append("🎵 **Tổng thời gian phát nhạc:**\n");
-    sb.append("└ ").append(playbackTime).append("\n\n");
-    sb.append("⚡ **Tổng số lần dùng lệnh:**\n");
-    sb.append("└ ").append(commandUsage).append(" lần\n");
+    // Defer while the statistics are read off the event thread
+    event.deferReply().queue();
 
-    event
-        .replyEmbeds(
-            EmbedUtils.createEmbed("📊 **Server Statistics**", sb.toString(), EmbedUtils.COLOR_INFO, event.getUser()))
-        .setEphemeral(false)
-        .queue();
+    fetchStats(guildId, window)
+        .thenAccept(message -> event.getHook().editOriginalEmbeds(
+            EmbedUtils.createEmbed("📊 **Server Statistics**", message, EmbedUtils.COLOR_INFO, event.getUser()))
+            .queue())
+        .exceptionally(error -> {
+          logger.error("Failed to load statistics for guild {}", guildId, error);
+          event.getHook().editOriginalEmbeds(
+              EmbedUtils.createErrorEmbed("❌ Failed to load server statistics!", event.getUser())).queue();
+          return null;
+        });
   }
 
   @Override
@@ -68,12 +72,51 @@ public class StatsCommand extends Command {
       return;
     }
 
-    DatabaseManager db = DatabaseManager.getInstance();
-    String guildId = event.getGuild().getId();
+    long guildId = event.getGuild().getIdLong();
+    StatsWindow window = args.isBlank() ? StatsWindow.ALL_TIME : StatsWindow.fromKey(args);
+    if (window == null) {
+      event.getMessage()
+          .replyEmbeds(EmbedUtils.createErrorEmbed("❌ Unknown time window! Use: 24h, 7d, 30d or all", event.getAuthor()))
+          .queue();
+      return;
+    }
+
+    fetchStats(guildId, window)
+        .thenAccept(message -> event.getMessage()
+            .replyEmbeds(
+                EmbedUtils.createEmbed("📊 **Server Statistics**", message, EmbedUtils.COLOR_INFO, event.getAuthor()))
+            .queue())
+        .exceptionally(error -> {
+          logger.error("Failed to load statistics for guild {}", guildId, error);
+          event.getMessage()
+              .replyEmbeds(EmbedUtils.createErrorEmbed("❌ Failed to load server statistics!", event.getAuthor()))
+              .queue();
+          return null;
+        });
+  }
 
-    // Get statistics
-    long playbackSeconds = db.getGuildPlaybackTime(guildId);
-    long commandUsage = db.getTotalCommandUsage(guildId);
+  /**
+   * Loads the guild statistics asynchronously and formats them.
+   *
+   * @param guildId The guild ID
+   * @param window  The time window to report
+   * @return Future with the formatted statistics message
+   */
+  private CompletableFuture<String> fetchStats(long guildId, StatsWindow window) {
+    AsyncDatabase db = DatabaseManager.getInstance().async();
+    return db.getGuildStats(guildId, window).thenApply(stats -> buildStatsMessage(stats, window));
+  }
+
+  /**
+   * Builds the statistics message.
+   *
+   * @param stats  Counters inside the window
+   * @param window The reported time window
+   * @return Formatted statistics message
+   */
+  private String buildStatsMessage(GuildStats stats, StatsWindow window) {
+    long playbackSeconds = stats.playbackSeconds();
+    long commandUsage = stats.commandCount();
 
     // Format playback time
     long hours = playbackSeconds / 3600;
@@ -88,15 +131,12 @@ public class StatsCommand extends Command {
 
     // Build response
     StringBuilder sb = new StringBuilder();
-    sb.append("📊 **Thống kê Server**\n\n");
+    sb.append("📊 **Thống kê Server** (").append(window.getLabel()).append(")\n\n");
     sb.append("🎵 **Tổng thời gian phát nhạc:**\n");
     sb.append("└ ").append(playbackTime).append("\n\n");
     sb.append("⚡ **Tổng số lần dùng lệnh:**\n");
     sb.append("└ ").append(commandUsage).append(" lần\n");
-
-    event.getMessage()
-        .replyEmbeds(
-            EmbedUtils.createEmbed("📊 **Server Statistics**", sb.toString(), EmbedUtils.COLOR_INFO, event.getAuthor()))
-        .queue();
+    return sb.toString();
   }
 }
+
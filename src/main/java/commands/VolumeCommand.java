@@ -8,11 +8,16 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 import utils.EmbedUtils;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Command to control audio volume.
  */
 public class VolumeCommand extends Command {
+  private static final Logger logger = LoggerFactory.getLogger(VolumeCommand.class);
+  private static final String LOW_CPU_MESSAGE = "🔋 Low CPU mode is on, so audio plays at 100% without re-encoding. Turn it off with `lowcpu off` to change the volume.";
+
   @Override
   @NotNull
   public SlashCommandData getCommandData() {
@@ -74,23 +79,37 @@ public class VolumeCommand extends Command {
       return;
     }
 
-    // Set volume
-    if (voiceManager.setVolume(event.getGuild(), newVolume)) {
-      String message = String.format("🔊 **Volume set to %d%%**", newVolume);
-      if (actionOption != null) {
-        String action = actionOption.toLowerCase();
-        if ("up".equals(action)) {
-          message = String.format("🔊 **Volume increased to %d%%** (was %d%%)", newVolume, currentVolume);
-        } else if ("down".equals(action)) {
-          message = String.format("🔊 **Volume decreased to %d%%** (was %d%%)", newVolume, currentVolume);
-        }
-      }
-      event.replyEmbeds(EmbedUtils.createSuccessEmbed(message, event.getUser()))
-          .setEphemeral(false).queue();
-    } else {
-      event.replyEmbeds(EmbedUtils.createErrorEmbed("Failed to set volume!", event.getUser()))
-          .setEphemeral(true).queue();
-    }
+    // Volume is fixed while low CPU mode is on; the lookup may need a database read, so defer the reply
+    int targetVolume = newVolume;
+    event.deferReply().queue();
+    voiceManager.isLowCpu(event.getGuild())
+        .thenApply(lowCpu -> {
+          if (lowCpu) {
+            return EmbedUtils.createWarningEmbed(LOW_CPU_MESSAGE, event.getUser());
+          }
+
+          // Set volume
+          if (!voiceManager.setVolume(event.getGuild(), targetVolume)) {
+            return EmbedUtils.createErrorEmbed("Failed to set volume!", event.getUser());
+          }
+          String message = String.format("🔊 **Volume set to %d%%**", targetVolume);
+          if (actionOption != null) {
+            String action = actionOption.toLowerCase();
+            if ("up".equals(action)) {
+              message = String.format("🔊 **Volume increased to %d%%** (was %d%%)", targetVolume, currentVolume);
+            } else if ("down".equals(action)) {
+              message = String.format("🔊 **Volume decreased to %d%%** (was %d%%)", targetVolume, currentVolume);
+            }
+          }
+          return EmbedUtils.createSuccessEmbed(message, event.getUser());
+        })
+        .whenComplete((embed, error) -> {
+          if (error != null) {
+            logger.error("Failed to set volume for guild: {}", event.getGuild().getName(), error);
+            embed = EmbedUtils.createErrorEmbed("Failed to set volume!", event.getUser());
+          }
+          event.getHook().editOriginalEmbeds(embed).queue();
+        });
   }
 
   @Override
@@ -145,20 +164,33 @@ public class VolumeCommand extends Command {
       return;
     }
 
-    // Set volume
-    if (voiceManager.setVolume(event.getGuild(), newVolume)) {
-      String message = String.format("🔊 **Volume set to %d%%**", newVolume);
-      if ("up".equals(lowerArgs)) {
-        message = String.format("🔊 **Volume increased to %d%%** (was %d%%)", newVolume, currentVolume);
-      } else if ("down".equals(lowerArgs)) {
-        message = String.format("🔊 **Volume decreased to %d%%** (was %d%%)", newVolume, currentVolume);
-      }
-      event.getMessage().replyEmbeds(EmbedUtils.createSuccessEmbed(message, event.getAuthor()))
-          .queue();
-    } else {
-      event.getMessage().replyEmbeds(EmbedUtils.createErrorEmbed("Failed to set volume!", event.getAuthor()))
-          .queue();
-    }
+    // Volume is fixed while low CPU mode is on
+    int targetVolume = newVolume;
+    voiceManager.isLowCpu(event.getGuild())
+        .thenApply(lowCpu -> {
+          if (lowCpu) {
+            return EmbedUtils.createWarningEmbed(LOW_CPU_MESSAGE, event.getAuthor());
+          }
+
+          // Set volume
+          if (!voiceManager.setVolume(event.getGuild(), targetVolume)) {
+            return EmbedUtils.createErrorEmbed("Failed to set volume!", event.getAuthor());
+          }
+          String message = String.format("🔊 **Volume set to %d%%**", targetVolume);
+          if ("up".equals(lowerArgs)) {
+            message = String.format("🔊 **Volume increased to %d%%** (was %d%%)", targetVolume, currentVolume);
+          } else if ("down".equals(lowerArgs)) {
+            message = String.format("🔊 **Volume decreased to %d%%** (was %d%%)", targetVolume, currentVolume);
+          }
+          return EmbedUtils.createSuccessEmbed(message, event.getAuthor());
+        })
+        .whenComplete((embed, error) -> {
+          if (error != null) {
+            logger.error("Failed to set volume for guild: {}", event.getGuild().getName(), error);
+            embed = EmbedUtils.createErrorEmbed("Failed to set volume!", event.getAuthor());
+          }
+          event.getMessage().replyEmbeds(embed).queue();
+        });
   }
 }
 
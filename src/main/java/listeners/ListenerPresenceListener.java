@@ -0,0 +1,28 @@
+package listeners;
+
+import managers.VoiceManager;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener that feeds voice state changes to the listener presence tracker,
+ * so playback pauses in empty channels and resumes when someone joins.
+ */
+public class ListenerPresenceListener extends ListenerAdapter {
+  private final VoiceManager voiceManager;
+
+  public ListenerPresenceListener() {
+    this.voiceManager = VoiceManager.getInstance();
+  }
+
+  @Override
+  public void onGuildVoiceUpdate(@NotNull GuildVoiceUpdateEvent event) {
+    Guild guild = event.getGuild();
+    // Only guilds the bot is playing in, plus the bot's own moves
+    if (voiceManager.isConnected(guild) || event.getEntity().equals(guild.getSelfMember())) {
+      voiceManager.getPresenceTracker().onVoiceUpdate(guild);
+    }
+  }
+}
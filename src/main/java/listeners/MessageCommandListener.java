@@ -12,6 +12,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Listener for message-based commands.
  * Routes commands prefixed with the configured prefix to their respective
@@ -78,11 +80,15 @@ public class MessageCommandListener extends ListenerAdapter {
     try {
       // Track command usage for statistics
       if (event.isFromGuild()) {
-        managers.DatabaseManager.getInstance().recordCommandUsage(
-            event.getGuild().getId(), commandName);
+        managers.DatabaseManager.getInstance().getStatsStorage().recordCommandUsage(
+            event.getGuild().getIdLong(), commandName);
       }
       
+      long startNanos = System.nanoTime();
       command.executeMessage(event, args);
+      if (botInstance != null) {
+        botInstance.recordCommandLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      }
       logger.info("Command {} executed via message by {} in {}",
           commandName, event.getAuthor().getAsTag(),
           event.getGuild() != null ? event.getGuild().getName() : "DM");
@@ -11,6 +11,8 @@ import org.slf4j.LoggerFactory;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Listener for slash command interactions.
  * Routes commands to their respective command handlers.
@@ -55,11 +57,15 @@ public class SlashCommandListener extends ListenerAdapter {
     try {
       // Track command usage for statistics
       if (event.isFromGuild()) {
-        managers.DatabaseManager.getInstance().recordCommandUsage(
-            event.getGuild().getId(), event.getName());
+        managers.DatabaseManager.getInstance().getStatsStorage().recordCommandUsage(
+            event.getGuild().getIdLong(), event.getName());
       }
       
+      long startNanos = System.nanoTime();
       command.execute(event);
+      if (botInstance != null) {
+        botInstance.recordCommandLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      }
     } catch (Exception e) {
       logger.error("Error executing command: {}", event.getName(), e);
       event.reply("An error occurred while executing this command!")
@@ -9,16 +9,14 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 /**
  * Listener to handle automatic voice channel reconnection after network issues.
+ * Reconnects are queued on the VoiceManager's reconnect scheduler, which paces
+ * and retries them.
  */
 public class VoiceReconnectListener extends ListenerAdapter {
   private static final Logger logger = LoggerFactory.getLogger(VoiceReconnectListener.class);
-  private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+  private static final long DISCONNECT_RECONNECT_DELAY_MS = 2000;
   private final VoiceManager voiceManager;
 
   public VoiceReconnectListener() {
@@ -28,10 +26,7 @@ public class VoiceReconnectListener extends ListenerAdapter {
   @Override
   public void onReady(@NotNull ReadyEvent event) {
     logger.info("Bot is ready, checking for voice channels to reconnect...");
-    // Wait a bit for all guilds to be fully loaded
-    scheduler.schedule(() -> {
-      reconnectAllVoiceChannels(event.getJDA().getGuilds());
-    }, 5, TimeUnit.SECONDS);
+    reconnectAllVoiceChannels(event.getJDA().getGuilds());
   }
 
   // Note: JDA doesn't have a direct ReconnectedEvent, but ReadyEvent fires on
@@ -52,42 +47,32 @@ public class VoiceReconnectListener extends ListenerAdapter {
         // Check if this was an unexpected disconnect (not manual)
         // If we have stored voice channel info, it means we should reconnect
         Long storedChannelId = voiceManager.getStoredVoiceChannelId(guild);
-        if (storedChannelId != null && storedChannelId.equals(event.getChannelLeft().getIdLong())) {
+        if (storedChannelId != null && storedChannelId.equals(event.getChannelLeft().getIdLong())
+            && voiceManager.claimVoiceChannel(guild)) {
           // This was our stored channel, attempt to reconnect after a delay
           logger.info("Scheduling reconnection attempt for guild: {}", guild.getName());
-          scheduler.schedule(() -> {
-            if (!voiceManager.isConnected(guild)) {
-              logger.info("Attempting to reconnect to voice channel in guild: {}", guild.getName());
-              boolean reconnected = voiceManager.reconnectToVoiceChannel(guild);
-              if (reconnected) {
-                logger.info("Successfully reconnected to voice channel in guild: {}", guild.getName());
-              } else {
-                logger.warn("Failed to reconnect to voice channel in guild: {}", guild.getName());
-              }
-            }
-          }, 2, TimeUnit.SECONDS);
+          voiceManager.getReconnectScheduler().schedule(guild, DISCONNECT_RECONNECT_DELAY_MS);
         }
       }
     }
   }
 
   /**
-   * Attempts to reconnect to all stored voice channels.
+   * Queues a reconnect for every guild with a stored voice channel held by this bot.
    *
    * @param guilds The guilds to check
    */
   private void reconnectAllVoiceChannels(java.util.List<Guild> guilds) {
+    int scheduled = 0;
     for (Guild guild : guilds) {
       Long storedChannelId = voiceManager.getStoredVoiceChannelId(guild);
-      if (storedChannelId != null && !voiceManager.isConnected(guild)) {
-        logger.info("Attempting to reconnect to stored voice channel in guild: {}", guild.getName());
-        boolean reconnected = voiceManager.reconnectToVoiceChannel(guild);
-        if (reconnected) {
-          logger.info("Successfully reconnected to voice channel in guild: {}", guild.getName());
-        } else {
-          logger.warn("Failed to reconnect to voice channel in guild: {}", guild.getName());
-        }
+      if (storedChannelId != null && !voiceManager.isConnected(guild) && voiceManager.claimVoiceChannel(guild)) {
+        voiceManager.getReconnectScheduler().schedule(guild, 0);
+        scheduled++;
       }
     }
+    if (scheduled > 0) {
+      logger.info("Scheduled reconnection to {} voice channel(s)", scheduled);
+    }
   }
 }
@@ -18,7 +18,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class VoiceTrackingListener extends ListenerAdapter {
   private static final Logger logger = LoggerFactory.getLogger(VoiceTrackingListener.class);
   private final DatabaseManager databaseManager;
-  // Track active sessions: guildId_userId -> sessionId
+  // Track active sessions: guildId_userId -> session start (epoch seconds)
   private final Map<String, Long> activeSessions = new ConcurrentHashMap<>();
 
   public VoiceTrackingListener() {
@@ -35,8 +35,8 @@ public class VoiceTrackingListener extends ListenerAdapter {
       return;
     }
 
-    String guildId = guild.getId();
-    String userId = member.getId();
+    long guildId = guild.getIdLong();
+    long userId = member.getIdLong();
     String sessionKey = guildId + "_" + userId;
 
     // Check if bot is playing music in this guild
@@ -49,22 +49,20 @@ public class VoiceTrackingListener extends ListenerAdapter {
     if (event.getChannelJoined() != null) {
       // User joined a voice channel
       if (event.getChannelJoined().equals(guild.getSelfMember().getVoiceState().getChannel())) {
-        // User joined bot's voice channel, start tracking
-        long sessionId = databaseManager.startPlaybackSession(guildId, userId);
-        if (sessionId > 0) {
-          activeSessions.put(sessionKey, sessionId);
-          logger.debug("Started tracking listening session for user {} in guild {}", userId, guildId);
-        }
+        // User joined bot's voice channel, the session is stored once it ends
+        activeSessions.put(sessionKey, System.currentTimeMillis() / 1000);
+        logger.debug("Started tracking listening session for user {} in guild {}", userId, guildId);
       }
     }
 
     // Check if user left voice channel
     if (event.getChannelLeft() != null) {
       // User left a voice channel
-      Long sessionId = activeSessions.remove(sessionKey);
-      if (sessionId != null) {
-        // End the session
-        databaseManager.endPlaybackSession(sessionId);
+      Long startTime = activeSessions.remove(sessionKey);
+      if (startTime != null) {
+        // Recording does not block the event thread
+        databaseManager.getStatsStorage().recordListeningSession(guildId, userId, startTime,
+            System.currentTimeMillis() / 1000);
         logger.debug("Ended tracking listening session for user {} in guild {}", userId, guildId);
       }
     }
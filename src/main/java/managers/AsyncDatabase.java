@@ -0,0 +1,247 @@
+package managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over DatabaseManager.
+ * Every call runs on a bounded database executor and returns a
+ * CompletableFuture, so JDA event and callback threads never wait on SQLite.
+ */
+public class AsyncDatabase {
+  private static final Logger logger = LoggerFactory.getLogger(AsyncDatabase.class);
+  private static final int QUEUE_CAPACITY = 1000;
+
+  private final DatabaseManager databaseManager;
+  private final ThreadPoolExecutor executor;
+
+  AsyncDatabase(DatabaseManager databaseManager, int threads) {
+    this.databaseManager = databaseManager;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+          Thread thread = new Thread(runnable, "db-async-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Gets total playback time for a guild in seconds.
+   *
+   * @param guildId The guild ID
+   * @return Future with the total playback seconds
+   */
+  public CompletableFuture<Long> getGuildPlaybackTime(long guildId) {
+    return submit(() -> databaseManager.getGuildPlaybackTime(guildId));
+  }
+
+  /**
+   * Gets total command usage count for a guild.
+   *
+   * @param guildId The guild ID
+   * @return Future with the total command usage count
+   */
+  public CompletableFuture<Long> getTotalCommandUsage(long guildId) {
+    return submit(() -> databaseManager.getTotalCommandUsage(guildId));
+  }
+
+  /**
+   * Gets command and playback counters for a guild over a time window.
+   *
+   * @param guildId The guild ID
+   * @param window  The time window
+   * @return Future with the counters inside the window
+   */
+  public CompletableFuture<GuildStats> getGuildStats(long guildId, StatsWindow window) {
+    return submit(() -> databaseManager.getGuildStats(guildId, window));
+  }
+
+  /**
+   * Gets user listening time for a guild.
+   *
+   * @param guildId The guild ID
+   * @param userId  The user ID
+   * @return Future with the total listening seconds
+   */
+  public CompletableFuture<Long> getUserListeningTime(long guildId, long userId) {
+    return submit(() -> databaseManager.getUserListeningTime(guildId, userId));
+  }
+
+  /**
+   * Gets top listeners for a guild.
+   *
+   * @param guildId The guild ID
+   * @param limit   Number of top listeners to return
+   * @return Future with the top listeners
+   */
+  public CompletableFuture<List<ListenerStat>> getTopListeners(long guildId, int limit) {
+    // A loaded leaderboard is served from memory, so skip the executor hop
+    List<ListenerStat> cached = databaseManager.getCachedTopListeners(guildId, limit);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    return submit(() -> databaseManager.getTopListeners(guildId, limit));
+  }
+
+  /**
+   * Gets the volume setting for a guild.
+   *
+   * @param guildId The guild ID
+   * @return Future with the volume (0-100)
+   */
+  public CompletableFuture<Integer> getGuildVolume(long guildId) {
+    // Cached settings need no database round trip, so skip the executor hop
+    GuildSettings cached = databaseManager.getSettingsCache().getIfPresent(guildId);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached.getVolume());
+    }
+    return submit(() -> databaseManager.getGuildVolume(guildId));
+  }
+
+  /**
+   * Gets the volume a guild's player should run at (unity gain in low CPU mode).
+   *
+   * @param guildId The guild ID
+   * @return Future with the playback volume (0-100)
+   */
+  public CompletableFuture<Integer> getGuildPlaybackVolume(long guildId) {
+    GuildSettings cached = databaseManager.getSettingsCache().getIfPresent(guildId);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached.getPlaybackVolume());
+    }
+    return submit(() -> databaseManager.getGuildSettings(guildId).getPlaybackVolume());
+  }
+
+  /**
+   * Checks if a guild is in low CPU mode.
+   *
+   * @param guildId The guild ID
+   * @return Future with true if low CPU mode is on
+   */
+  public CompletableFuture<Boolean> isGuildLowCpu(long guildId) {
+    GuildSettings cached = databaseManager.getSettingsCache().getIfPresent(guildId);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached.isLowCpu());
+    }
+    return submit(() -> databaseManager.getGuildSettings(guildId).isLowCpu());
+  }
+
+  /**
+   * Sets the volume setting for a guild.
+   *
+   * @param guildId The guild ID
+   * @param volume  Volume (0-100)
+   * @return Future completed once the setting is stored
+   */
+  public CompletableFuture<Void> setGuildVolume(long guildId, int volume) {
+    return submit(() -> {
+      databaseManager.setGuildVolume(guildId, volume);
+      return null;
+    });
+  }
+
+  /**
+   * Turns low CPU mode on or off for a guild.
+   *
+   * @param guildId The guild ID
+   * @param lowCpu  Whether low CPU mode is on
+   * @return Future completed once the setting is stored
+   */
+  public CompletableFuture<Void> setGuildLowCpu(long guildId, boolean lowCpu) {
+    return submit(() -> {
+      databaseManager.setGuildLowCpu(guildId, lowCpu);
+      return null;
+    });
+  }
+
+  /**
+   * Stores the voice session of a guild.
+   *
+   * @param session The voice session
+   * @return Future completed once the session is stored
+   */
+  CompletableFuture<Void> saveVoiceSession(VoiceSession session) {
+    return submit(() -> {
+      databaseManager.saveVoiceSession(session);
+      return null;
+    });
+  }
+
+  /**
+   * Removes the voice session of a guild.
+   *
+   * @param guildId The guild ID
+   * @return Future completed once the session is removed
+   */
+  CompletableFuture<Void> deleteVoiceSession(long guildId) {
+    return submit(() -> {
+      databaseManager.deleteVoiceSession(guildId);
+      return null;
+    });
+  }
+
+  /**
+   * Starts a playback session for a user in a guild.
+   *
+   * @param guildId The guild ID
+   * @param userId  The user ID
+   * @return Future with the session ID (-1 on failure)
+   */
+  public CompletableFuture<Long> startPlaybackSession(long guildId, long userId) {
+    return submit(() -> databaseManager.startPlaybackSession(guildId, userId));
+  }
+
+  /**
+   * Ends a playback session and updates user listening stats.
+   *
+   * @param sessionId The session ID
+   * @return Future completed once the session is stored
+   */
+  public CompletableFuture<Void> endPlaybackSession(long sessionId) {
+    return submit(() -> {
+      databaseManager.endPlaybackSession(sessionId);
+      return null;
+    });
+  }
+
+  /**
+   * Submits work to the database executor.
+   * When the queue is full the returned future fails instead of blocking the caller.
+   *
+   * @param work The work to run
+   * @return Future with the result
+   */
+  private <T> CompletableFuture<T> submit(Supplier<T> work) {
+    try {
+      return CompletableFuture.supplyAsync(work, executor);
+    } catch (RejectedExecutionException e) {
+      logger.warn("Database executor queue is full, rejecting request");
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Stops accepting work and waits for queued calls to finish.
+   */
+  void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import net.dv8tion.jda.api.audio.AudioSendHandler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AudioSendHandler implementation for LavaPlayer.
+ * Frames are provided into one reused buffer, so the 20 ms send path does not allocate.
+ */
+class AudioPlayerSendHandler implements AudioSendHandler {
+  private final AudioPlayer audioPlayer;
+  private final TrackScheduler scheduler;
+  private final StallWatchdog watchdog;
+  private final ByteBuffer buffer;
+  private final MutableAudioFrame frame;
+
+  public AudioPlayerSendHandler(AudioPlayer audioPlayer, TrackScheduler scheduler, StallWatchdog watchdog) {
+    this.audioPlayer = audioPlayer;
+    this.scheduler = scheduler;
+    this.watchdog = watchdog;
+    // JDA requires an array-backed buffer, so this is a heap buffer rather than a direct one
+    this.buffer = ByteBuffer.allocate(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
+    this.frame = new MutableAudioFrame();
+    this.frame.setBuffer(buffer);
+  }
+
+  @Override
+  public boolean canProvide() {
+    if (!audioPlayer.provide(frame)) {
+      watchdog.onEmpty();
+      return false;
+    }
+    scheduler.onFrameSent();
+    watchdog.onFrame();
+    return true;
+  }
+
+  @Override
+  public ByteBuffer provide20MsAudio() {
+    // The frame was written from the start of the buffer, flip to expose exactly its bytes
+    return buffer.flip();
+  }
+
+  @Override
+  public boolean isOpus() {
+    return true;
+  }
+}
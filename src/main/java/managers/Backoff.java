@@ -0,0 +1,24 @@
+package managers;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry delays shared by the stream and voice reconnect paths.
+ */
+class Backoff {
+  private Backoff() {
+  }
+
+  /**
+   * Exponential backoff with jitter: a random delay between half and all of the capped backoff.
+   *
+   * @param baseMs   Delay after the first failure before jitter, in milliseconds
+   * @param maxMs    Cap on the delay before jitter, in milliseconds
+   * @param attempts Failed attempts so far (at least 1)
+   * @return Delay before the next attempt in milliseconds
+   */
+  static long jittered(long baseMs, long maxMs, int attempts) {
+    long capped = Math.min(maxMs, baseMs << Math.min(attempts - 1, 16));
+    return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+  }
+}
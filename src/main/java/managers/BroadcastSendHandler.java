@@ -0,0 +1,76 @@
+package managers;
+
+import net.dv8tion.jda.api.audio.AudioSendHandler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AudioSendHandler that reads a guild's frames from a shared stream broadcast.
+ * The handler keeps its own cursor into the broadcast's ring, starting a few
+ * frames behind the newest one to absorb jitter between the broadcast clock
+ * and the guild's audio send thread.
+ */
+class BroadcastSendHandler implements AudioSendHandler {
+  private static final int JITTER_FRAMES = 3;
+
+  private final byte[] frame = new byte[OpusFrameRing.MAX_FRAME_SIZE];
+  private final ByteBuffer frameBuffer = ByteBuffer.wrap(frame);
+  private volatile StreamBroadcast broadcast;
+  // Only accessed on the audio send thread
+  private OpusFrameRing ring;
+  private long cursor;
+
+  BroadcastSendHandler(StreamBroadcast broadcast) {
+    this.broadcast = broadcast;
+  }
+
+  StreamBroadcast getBroadcast() {
+    return broadcast;
+  }
+
+  /**
+   * Moves the guild to another broadcast (e.g. after a volume change).
+   *
+   * @param broadcast The broadcast to read from
+   */
+  void setBroadcast(StreamBroadcast broadcast) {
+    this.broadcast = broadcast;
+  }
+
+  @Override
+  public boolean canProvide() {
+    OpusFrameRing current = broadcast.getRing();
+    long latest = current.latest();
+    if (latest < 0) {
+      return false; // Stream is still loading
+    }
+
+    // Join (or rejoin after falling a full ring behind) just behind the newest frame
+    if (current != ring || latest - cursor >= current.capacity()) {
+      ring = current;
+      cursor = Math.max(0, latest - JITTER_FRAMES);
+    }
+    if (cursor > latest) {
+      return false; // Caught up with the broadcast
+    }
+
+    int length = current.read(cursor, frame);
+    if (length < 0) {
+      cursor = Math.max(0, current.latest() - JITTER_FRAMES); // Overwritten while reading
+      return false;
+    }
+    cursor++;
+    frameBuffer.clear().limit(length);
+    return true;
+  }
+
+  @Override
+  public ByteBuffer provide20MsAudio() {
+    return frameBuffer;
+  }
+
+  @Override
+  public boolean isOpus() {
+    return true;
+  }
+}
@@ -5,6 +5,7 @@ import commands.FocusCommand;
 import commands.HelpCommand;
 import commands.LeaveCommand;
 import commands.LofiCommand;
+import commands.LowCpuCommand;
 import commands.MeCommand;
 import commands.PingCommand;
 import commands.StatsCommand;
@@ -29,6 +30,7 @@ public class CommandManager {
     registerCommand(new StatsCommand());
     registerCommand(new MeCommand());
     registerCommand(new VolumeCommand());
+    registerCommand(new LowCpuCommand());
     registerCommand(new FocusCommand());
     
     // Register help command and initialize it
@@ -51,6 +53,7 @@ public class CommandManager {
     registerCommand(new StatsCommand());
     registerCommand(new MeCommand());
     registerCommand(new VolumeCommand());
+    registerCommand(new LowCpuCommand());
     registerCommand(new FocusCommand());
     
     // Register help command and initialize it
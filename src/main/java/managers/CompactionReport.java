@@ -0,0 +1,14 @@
+package managers;
+
+/**
+ * Outcome of one playback session compaction run.
+ *
+ * @param before            Database state before the run
+ * @param after             Database state after the run
+ * @param compactedSessions Number of raw sessions folded into daily rows and deleted
+ * @param durationMs        Wall time of the run in milliseconds
+ * @param finishedAt        Completion time as epoch seconds
+ */
+public record CompactionReport(DatabaseStats before, DatabaseStats after, long compactedSessions,
+    long durationMs, long finishedAt) {
+}
@@ -3,26 +3,98 @@ package managers;
 import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages database operations using SQLite.
+ * All writes are serialized through a single writer connection owned by a
+ * dedicated thread, while reads are served from a small pool of read-only
+ * connections. The database runs in WAL mode so readers never block the writer.
  */
-public class DatabaseManager {
+public class DatabaseManager implements StatsStorage {
   private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
   private static DatabaseManager instance;
   private static final String DB_PATH = "data/bot.db";
-  private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
-  private Connection connection;
+  public static final int DEFAULT_VOLUME = 50;
+  private static final int READ_POOL_SIZE = 4;
+  private static final int BUSY_TIMEOUT_MS = 5000;
+  private static final int CACHE_SIZE_KB = 8192;
+  private static final long MMAP_SIZE_BYTES = 64L * 1024 * 1024;
+  private static final int SETTINGS_CACHE_CAPACITY = 10000;
+  private static final int LEADERBOARD_SIZE = 25;
+  private static final long HOURLY_ROLLUP_RETENTION_SECONDS = 48 * 3600;
+  private static final String JOURNAL_DIR = "data/stats-journal";
+
+  private final String dbPath;
+  private final String dbUrl;
+  private final ExecutorService writeExecutor;
+  private volatile Thread writerThread;
+  private Connection writeConnection; // Only accessed on the writer thread
+  private long lastHourlyPrune; // Only accessed on the writer thread
+  private final BlockingQueue<Connection> readConnections;
+  private final StatsWriteBehind writeBehind;
+  private final AsyncDatabase async;
+  private final GuildSettingsCache settingsCache;
+  private final ListenerLeaderboard leaderboard = new ListenerLeaderboard(LEADERBOARD_SIZE);
+  private volatile SessionCompactor sessionCompactor;
+  private volatile StatsStorage statsStorage = this;
+  private JournalStatsStorage journal;
+
+  /**
+   * Unit of database work that runs against a borrowed connection.
+   */
+  @FunctionalInterface
+  interface SqlWork<T> {
+    T execute(Connection conn) throws SQLException;
+  }
+
+  /**
+   * New listening total of a user after a playback session was closed.
+   */
+  private record ClosedSession(long guildId, long userId, long totalListeningSeconds) {
+  }
 
   private DatabaseManager() {
+    this(DB_PATH);
+  }
+
+  /**
+   * Creates a manager for a specific database file.
+   * The bot uses the singleton; this is for benchmarks and tooling that need a scratch database.
+   *
+   * @param dbPath Path of the SQLite database file
+   */
+  DatabaseManager(String dbPath) {
+    this.dbPath = dbPath;
+    this.dbUrl = "jdbc:sqlite:" + dbPath;
     initializeDatabase();
+    this.writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      writerThread = new Thread(runnable, "db-writer");
+      writerThread.setDaemon(true);
+      return writerThread;
+    });
+    this.readConnections = new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    openConnections();
+    this.settingsCache = new GuildSettingsCache(SETTINGS_CACHE_CAPACITY, this::loadGuildSettings);
+    this.writeBehind = new StatsWriteBehind(this);
+    this.async = new AsyncDatabase(this, READ_POOL_SIZE);
   }
 
   /**
@@ -30,32 +102,52 @@ public class DatabaseManager {
    *
    * @return DatabaseManager instance
    */
-  public static DatabaseManager getInstance() {
+  public static synchronized DatabaseManager getInstance() {
     if (instance == null) {
       instance = new DatabaseManager();
     }
     return instance;
   }
 
+  /**
+   * Replaces the singleton instance.
+   * Tests use this to point the managers at a scratch database instead of data/bot.db.
+   *
+   * @param manager Manager to return from getInstance, or null to open the default database on next use
+   */
+  static synchronized void setInstance(DatabaseManager manager) {
+    instance = manager;
+  }
+
+  /**
+   * Gets the non-blocking counterpart of this manager.
+   * Use it from JDA event and callback threads.
+   *
+   * @return AsyncDatabase backed by this manager
+   */
+  public AsyncDatabase async() {
+    return async;
+  }
+
   /**
    * Initializes the database and runs migrations.
    */
   private void initializeDatabase() {
     try {
       // Create data directory if it doesn't exist
-      File dataDir = new File("data");
+      File dataDir = new File(dbPath).getAbsoluteFile().getParentFile();
       if (!dataDir.exists()) {
         dataDir.mkdirs();
       }
 
       // Run Flyway migrations
       Flyway flyway = Flyway.configure()
-          .dataSource(DB_URL, null, null)
+          .dataSource(dbUrl, null, null)
           .locations("classpath:db/migration")
           .load();
       flyway.migrate();
 
-      logger.info("Database initialized successfully at: {}", DB_PATH);
+      logger.info("Database initialized successfully at: {}", dbPath);
     } catch (Exception e) {
       logger.error("Failed to initialize database", e);
       throw new RuntimeException("Database initialization failed", e);
@@ -63,89 +155,412 @@ public class DatabaseManager {
   }
 
   /**
-   * Gets a database connection.
+   * Opens the writer connection on the writer thread and fills the read pool.
+   * The writer is opened first so WAL mode is in place before readers attach.
+   */
+  private void openConnections() {
+    try {
+      writeExecutor.submit(() -> {
+        SQLiteConfig config = createConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        writeConnection = config.createConnection(dbUrl);
+        return null;
+      }).get();
+
+      for (int i = 0; i < READ_POOL_SIZE; i++) {
+        SQLiteConfig config = createConfig();
+        config.setReadOnly(true);
+        readConnections.add(config.createConnection(dbUrl));
+      }
+
+      logger.info("Database connections opened (1 writer, {} readers, WAL mode)", READ_POOL_SIZE);
+    } catch (Exception e) {
+      logger.error("Failed to open database connections", e);
+      throw new RuntimeException("Database connection setup failed", e);
+    }
+  }
+
+  /**
+   * Creates the connection configuration shared by the writer and readers.
+   *
+   * @return SQLiteConfig with tuned pragmas
+   */
+  private static SQLiteConfig createConfig() {
+    SQLiteConfig config = new SQLiteConfig();
+    // NORMAL is durable across application crashes in WAL mode and avoids an fsync per commit
+    config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+    config.setBusyTimeout(BUSY_TIMEOUT_MS);
+    config.setCacheSize(-CACHE_SIZE_KB);
+    config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(MMAP_SIZE_BYTES));
+    config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+    return config;
+  }
+
+  /**
+   * Runs work on the writer connection.
+   * Calls from other threads are queued on the writer thread and awaited.
    *
-   * @return Connection
+   * @param work The work to run
+   * @return The result of the work
+   * @throws SQLException if the work fails
    */
-  private Connection getConnection() throws SQLException {
-    if (connection == null || connection.isClosed()) {
-      connection = DriverManager.getConnection(DB_URL);
+  <T> T write(SqlWork<T> work) throws SQLException {
+    if (Thread.currentThread() == writerThread) {
+      return work.execute(writeConnection);
+    }
+
+    Future<T> future = writeExecutor.submit(() -> work.execute(writeConnection));
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for database writer", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SQLException sqlException) {
+        throw sqlException;
+      }
+      throw new SQLException("Database write failed", e.getCause());
     }
-    return connection;
   }
 
   /**
-   * Records music playback time for a guild.
+   * Runs work on the writer connection inside a single transaction.
    *
-   * @param guildId The guild ID
-   * @param seconds Seconds to add
+   * @param work The work to run
+   * @return The result of the work
+   * @throws SQLException if the work fails (the transaction is rolled back)
    */
-  public void addGuildPlaybackTime(String guildId, long seconds) {
-    try (Connection conn = getConnection()) {
-      String sql = """
-          INSERT INTO guild_music_stats (guild_id, total_playback_seconds, last_updated)
-          VALUES (?, ?, strftime('%s', 'now'))
-          ON CONFLICT(guild_id) DO UPDATE SET
-            total_playback_seconds = total_playback_seconds + ?,
-            last_updated = strftime('%s', 'now')
-          """;
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        stmt.setLong(2, seconds);
-        stmt.setLong(3, seconds);
-        stmt.executeUpdate();
+  <T> T writeTransaction(SqlWork<T> work) throws SQLException {
+    return write(conn -> {
+      conn.setAutoCommit(false);
+      try {
+        T result = work.execute(conn);
+        conn.commit();
+        return result;
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        conn.setAutoCommit(true);
       }
+    });
+  }
+
+  /**
+   * Runs work on a pooled read-only connection.
+   *
+   * @param work The work to run
+   * @return The result of the work
+   * @throws SQLException if the work fails
+   */
+  <T> T read(SqlWork<T> work) throws SQLException {
+    Connection conn;
+    try {
+      conn = readConnections.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a read connection", e);
+    }
+
+    try {
+      return work.execute(conn);
+    } finally {
+      readConnections.add(conn);
+    }
+  }
+
+  /**
+   * Writes buffered statistics increments in a single transaction.
+   *
+   * @param commandUsage (guildId, commandName) -> usage count to add
+   * @param buckets      (guildId, hour) -> counters to add
+   * @param seq          Flush sequence of the batch, stored with it
+   * @return true if the batch was committed, false otherwise
+   */
+  boolean writeStatsBatch(Map<StatsWriteBehind.CommandKey, Long> commandUsage, Map<StatsBucket, GuildStats> buckets,
+      long seq) {
+    try {
+      return writeTransaction(conn -> {
+        writeStats(conn, commandUsage, buckets);
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE stats_flush_state SET flushed_seq = ?")) {
+          stmt.setLong(1, seq);
+          stmt.executeUpdate();
+        }
+        return true;
+      });
     } catch (SQLException e) {
-      logger.error("Failed to add guild playback time", e);
+      logger.error("Failed to write statistics batch", e);
+      return false;
     }
   }
 
   /**
-   * Gets total playback time for a guild in seconds.
+   * Gets the sequence of the last committed write-behind flush.
+   *
+   * @return Flush sequence, 0 if nothing was flushed yet
+   */
+  long getFlushedStatsSeq() {
+    try {
+      return read(conn -> queryLong(conn, "SELECT flushed_seq FROM stats_flush_state"));
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to read the stats flush sequence", e);
+    }
+  }
+
+  /**
+   * Applies statistics increments on the writer connection.
+   * Besides the per-command counters this keeps the hourly, daily and
+   * lifetime rollups up to date, and prunes expired hourly buckets.
+   * Must run inside a transaction.
+   *
+   * @param conn         The writer connection
+   * @param commandUsage (guildId, commandName) -> usage count to add
+   * @param buckets      (guildId, hour) -> counters to add
+   * @throws SQLException if the write fails
+   */
+  private void writeStats(Connection conn, Map<StatsWriteBehind.CommandKey, Long> commandUsage,
+      Map<StatsBucket, GuildStats> buckets) throws SQLException {
+    String commandSql = """
+        INSERT INTO guild_command_stats (guild_id, command_name, usage_count, last_used)
+        VALUES (?, ?, ?, strftime('%s', 'now'))
+        ON CONFLICT(guild_id, command_name) DO UPDATE SET
+          usage_count = usage_count + excluded.usage_count,
+          last_used = strftime('%s', 'now')
+        """;
+    String playbackSql = """
+        INSERT INTO guild_music_stats (guild_id, total_playback_seconds, last_updated)
+        VALUES (?, ?, strftime('%s', 'now'))
+        ON CONFLICT(guild_id) DO UPDATE SET
+          total_playback_seconds = total_playback_seconds + excluded.total_playback_seconds,
+          last_updated = strftime('%s', 'now')
+        """;
+
+    // Roll the hourly increments up into days and lifetime totals
+    Map<StatsBucket, GuildStats> daily = new HashMap<>();
+    Map<Long, GuildStats> totals = new HashMap<>();
+    for (Map.Entry<StatsBucket, GuildStats> entry : buckets.entrySet()) {
+      daily.merge(entry.getKey().toDay(), entry.getValue(), GuildStats::plus);
+      totals.merge(entry.getKey().guildId(), entry.getValue(), GuildStats::plus);
+    }
+
+    try (PreparedStatement commandStmt = conn.prepareStatement(commandSql);
+        PreparedStatement playbackStmt = conn.prepareStatement(playbackSql)) {
+      for (Map.Entry<StatsWriteBehind.CommandKey, Long> entry : commandUsage.entrySet()) {
+        commandStmt.setLong(1, entry.getKey().guildId());
+        commandStmt.setString(2, entry.getKey().commandName());
+        commandStmt.setLong(3, entry.getValue());
+        commandStmt.addBatch();
+      }
+      for (Map.Entry<Long, GuildStats> entry : totals.entrySet()) {
+        if (entry.getValue().playbackSeconds() > 0) {
+          playbackStmt.setLong(1, entry.getKey());
+          playbackStmt.setLong(2, entry.getValue().playbackSeconds());
+          playbackStmt.addBatch();
+        }
+      }
+      commandStmt.executeBatch();
+      playbackStmt.executeBatch();
+    }
+
+    writeRollups(conn, "guild_stats_hourly", buckets);
+    writeRollups(conn, "guild_stats_daily", daily);
+
+    String totalsSql = """
+        INSERT INTO guild_stats_totals (guild_id, command_count, playback_seconds)
+        VALUES (?, ?, ?)
+        ON CONFLICT(guild_id) DO UPDATE SET
+          command_count = command_count + excluded.command_count,
+          playback_seconds = playback_seconds + excluded.playback_seconds
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(totalsSql)) {
+      for (Map.Entry<Long, GuildStats> entry : totals.entrySet()) {
+        stmt.setLong(1, entry.getKey());
+        stmt.setLong(2, entry.getValue().commandCount());
+        stmt.setLong(3, entry.getValue().playbackSeconds());
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+    }
+
+    pruneHourlyRollups(conn);
+  }
+
+  /**
+   * Adds counters to a rollup table.
+   *
+   * @param conn    The writer connection
+   * @param table   guild_stats_hourly or guild_stats_daily
+   * @param buckets Counters to add per bucket
+   * @throws SQLException if the write fails
+   */
+  private static void writeRollups(Connection conn, String table, Map<StatsBucket, GuildStats> buckets)
+      throws SQLException {
+    String sql = "INSERT INTO " + table + " (guild_id, bucket_start, command_count, playback_seconds)"
+        + " VALUES (?, ?, ?, ?)"
+        + " ON CONFLICT(guild_id, bucket_start) DO UPDATE SET"
+        + " command_count = command_count + excluded.command_count,"
+        + " playback_seconds = playback_seconds + excluded.playback_seconds";
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      for (Map.Entry<StatsBucket, GuildStats> entry : buckets.entrySet()) {
+        stmt.setLong(1, entry.getKey().guildId());
+        stmt.setLong(2, entry.getKey().bucketStart());
+        stmt.setLong(3, entry.getValue().commandCount());
+        stmt.setLong(4, entry.getValue().playbackSeconds());
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+    }
+  }
+
+  /**
+   * Deletes hourly buckets that no window reads anymore.
+   * Runs at most once per hour.
+   *
+   * @param conn The writer connection
+   * @throws SQLException if the delete fails
+   */
+  private void pruneHourlyRollups(Connection conn) throws SQLException {
+    long now = System.currentTimeMillis() / 1000;
+    long currentHour = now - now % StatsBucket.HOUR_SECONDS;
+    if (currentHour == lastHourlyPrune) {
+      return;
+    }
+    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM guild_stats_hourly WHERE bucket_start < ?")) {
+      stmt.setLong(1, currentHour - HOURLY_ROLLUP_RETENTION_SECONDS);
+      int deleted = stmt.executeUpdate();
+      if (deleted > 0) {
+        logger.debug("Pruned {} expired hourly stat rows", deleted);
+      }
+    }
+    lastHourlyPrune = currentHour;
+  }
+
+  /**
+   * Gets command and playback counters for a guild over a time window.
+   * Answered from the rollup tables plus increments not flushed yet.
    *
    * @param guildId The guild ID
-   * @return Total playback seconds
+   * @param window  The time window
+   * @return Counters inside the window
    */
-  public long getGuildPlaybackTime(String guildId) {
-    try (Connection conn = getConnection()) {
-      String sql = "SELECT total_playback_seconds FROM guild_music_stats WHERE guild_id = ?";
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        try (ResultSet rs = stmt.executeQuery()) {
-          if (rs.next()) {
-            return rs.getLong("total_playback_seconds");
+  public GuildStats getGuildStats(long guildId, StatsWindow window) {
+    long since = window.getStart(System.currentTimeMillis() / 1000);
+    // Each query returns one row, with the flush sequence read from the same snapshot
+    String sql = switch (window) {
+      case LAST_24_HOURS -> """
+          SELECT COALESCE(SUM(command_count), 0), COALESCE(SUM(playback_seconds), 0),
+            (SELECT flushed_seq FROM stats_flush_state)
+          FROM guild_stats_hourly
+          WHERE guild_id = ? AND bucket_start >= ?
+          """;
+      case LAST_7_DAYS, LAST_30_DAYS -> """
+          SELECT COALESCE(SUM(command_count), 0), COALESCE(SUM(playback_seconds), 0),
+            (SELECT flushed_seq FROM stats_flush_state)
+          FROM guild_stats_daily
+          WHERE guild_id = ? AND bucket_start >= ?
+          """;
+      case ALL_TIME -> """
+          SELECT COALESCE(SUM(command_count), 0), COALESCE(SUM(playback_seconds), 0),
+            (SELECT flushed_seq FROM stats_flush_state)
+          FROM guild_stats_totals
+          WHERE guild_id = ?
+          """;
+    };
+
+    // Snapshot the uncommitted counters first: anything committed after this is in the read below
+    StatsWriteBehind.PendingStats pending = writeBehind.getPendingStats(guildId, since);
+    try {
+      return read(conn -> {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          stmt.setLong(1, guildId);
+          if (window != StatsWindow.ALL_TIME) {
+            stmt.setLong(2, since);
+          }
+          try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new GuildStats(rs.getLong(1), rs.getLong(2)).plus(pending.notIn(rs.getLong(3)));
           }
         }
-      }
+      });
     } catch (SQLException e) {
-      logger.error("Failed to get guild playback time", e);
+      logger.error("Failed to get guild stats", e);
+      return pending.notIn(0);
     }
-    return 0;
+  }
+
+  /**
+   * String ID variant of {@link #getGuildStats(long, StatsWindow)}.
+   *
+   * @param guildId The guild ID
+   * @param window  The time window
+   * @return Counters inside the window
+   */
+  public GuildStats getGuildStats(String guildId, StatsWindow window) {
+    return getGuildStats(Long.parseLong(guildId), window);
+  }
+
+  /**
+   * Records music playback time for a guild.
+   * The increment is buffered and written by the write-behind flusher.
+   *
+   * @param guildId The guild ID
+   * @param seconds Seconds to add
+   */
+  @Override
+  public void addGuildPlaybackTime(long guildId, long seconds) {
+    writeBehind.addGuildPlaybackTime(guildId, seconds);
+  }
+
+  /**
+   * String ID variant of {@link #addGuildPlaybackTime(long, long)}.
+   *
+   * @param guildId The guild ID
+   * @param seconds Seconds to add
+   */
+  public void addGuildPlaybackTime(String guildId, long seconds) {
+    addGuildPlaybackTime(Long.parseLong(guildId), seconds);
+  }
+
+  /**
+   * Gets total playback time for a guild in seconds.
+   *
+   * @param guildId The guild ID
+   * @return Total playback seconds
+   */
+  public long getGuildPlaybackTime(long guildId) {
+    return getGuildStats(guildId, StatsWindow.ALL_TIME).playbackSeconds();
+  }
+
+  /**
+   * String ID variant of {@link #getGuildPlaybackTime(long)}.
+   *
+   * @param guildId The guild ID
+   * @return Total playback seconds
+   */
+  public long getGuildPlaybackTime(String guildId) {
+    return getGuildPlaybackTime(Long.parseLong(guildId));
   }
 
   /**
    * Records command usage for a guild.
+   * The increment is buffered and written by the write-behind flusher.
+   *
+   * @param guildId     The guild ID
+   * @param commandName The command name
+   */
+  @Override
+  public void recordCommandUsage(long guildId, String commandName) {
+    writeBehind.recordCommandUsage(guildId, commandName);
+  }
+
+  /**
+   * String ID variant of {@link #recordCommandUsage(long, String)}.
    *
    * @param guildId     The guild ID
    * @param commandName The command name
    */
   public void recordCommandUsage(String guildId, String commandName) {
-    try (Connection conn = getConnection()) {
-      String sql = """
-          INSERT INTO guild_command_stats (guild_id, command_name, usage_count, last_used)
-          VALUES (?, ?, 1, strftime('%s', 'now'))
-          ON CONFLICT(guild_id, command_name) DO UPDATE SET
-            usage_count = usage_count + 1,
-            last_used = strftime('%s', 'now')
-          """;
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        stmt.setString(2, commandName);
-        stmt.executeUpdate();
-      }
-    } catch (SQLException e) {
-      logger.error("Failed to record command usage", e);
-    }
+    recordCommandUsage(Long.parseLong(guildId), commandName);
   }
 
   /**
@@ -154,21 +569,18 @@ public class DatabaseManager {
    * @param guildId The guild ID
    * @return Total command usage count
    */
+  public long getTotalCommandUsage(long guildId) {
+    return getGuildStats(guildId, StatsWindow.ALL_TIME).commandCount();
+  }
+
+  /**
+   * String ID variant of {@link #getTotalCommandUsage(long)}.
+   *
+   * @param guildId The guild ID
+   * @return Total command usage count
+   */
   public long getTotalCommandUsage(String guildId) {
-    try (Connection conn = getConnection()) {
-      String sql = "SELECT SUM(usage_count) as total FROM guild_command_stats WHERE guild_id = ?";
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        try (ResultSet rs = stmt.executeQuery()) {
-          if (rs.next()) {
-            return rs.getLong("total");
-          }
-        }
-      }
-    } catch (SQLException e) {
-      logger.error("Failed to get total command usage", e);
-    }
-    return 0;
+    return getTotalCommandUsage(Long.parseLong(guildId));
   }
 
   /**
@@ -178,94 +590,223 @@ public class DatabaseManager {
    * @param userId  The user ID
    * @return Session ID
    */
-  public long startPlaybackSession(String guildId, String userId) {
-    try (Connection conn = getConnection()) {
-      String sql = """
-          INSERT INTO playback_sessions (guild_id, user_id, start_time)
-          VALUES (?, ?, strftime('%s', 'now'))
-          """;
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        stmt.setString(2, userId);
-        stmt.executeUpdate();
+  public long startPlaybackSession(long guildId, long userId) {
+    try {
+      return write(conn -> {
+        String sql = """
+            INSERT INTO playback_sessions (guild_id, user_id, start_time)
+            VALUES (?, ?, strftime('%s', 'now'))
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          stmt.setLong(1, guildId);
+          stmt.setLong(2, userId);
+          stmt.executeUpdate();
+        }
 
-        // SQLite doesn't support getGeneratedKeys(), use last_insert_rowid() instead
+        // SQLite doesn't support getGeneratedKeys(), use last_insert_rowid() instead.
+        // This is safe because only the writer thread inserts on this connection.
         try (Statement queryStmt = conn.createStatement();
             ResultSet rs = queryStmt.executeQuery("SELECT last_insert_rowid()")) {
-          if (rs.next()) {
-            return rs.getLong(1);
-          }
+          return rs.next() ? rs.getLong(1) : -1L;
         }
-      }
+      });
     } catch (SQLException e) {
       logger.error("Failed to start playback session", e);
     }
     return -1;
   }
 
+  /**
+   * String ID variant of {@link #startPlaybackSession(long, long)}.
+   *
+   * @param guildId The guild ID
+   * @param userId  The user ID
+   * @return Session ID
+   */
+  public long startPlaybackSession(String guildId, String userId) {
+    return startPlaybackSession(Long.parseLong(guildId), Long.parseLong(userId));
+  }
+
   /**
    * Ends a playback session and updates user listening stats.
    *
    * @param sessionId The session ID
    */
   public void endPlaybackSession(long sessionId) {
-    try (Connection conn = getConnection()) {
-      // Get session info
-      String selectSql = "SELECT guild_id, user_id, start_time FROM playback_sessions WHERE session_id = ?";
-      String guildId = null;
-      String userId = null;
-      long startTime = 0;
-
-      try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
-        stmt.setLong(1, sessionId);
-        try (ResultSet rs = stmt.executeQuery()) {
-          if (rs.next()) {
-            guildId = rs.getString("guild_id");
-            userId = rs.getString("user_id");
-            startTime = rs.getLong("start_time");
-          } else {
-            return; // Session not found
+    try {
+      write(writerConn -> {
+        ClosedSession closed = writeTransaction(conn -> {
+          // Get session info
+          String selectSql = "SELECT guild_id, user_id, start_time FROM playback_sessions WHERE session_id = ?";
+          long guildId;
+          long userId;
+          long startTime;
+
+          try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            stmt.setLong(1, sessionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+              if (!rs.next()) {
+                return null; // Session not found
+              }
+              guildId = rs.getLong("guild_id");
+              userId = rs.getLong("user_id");
+              startTime = rs.getLong("start_time");
+            }
+          }
+
+          // Calculate duration
+          long endTime = System.currentTimeMillis() / 1000;
+          long duration = endTime - startTime;
+
+          // Update session
+          String updateSql = """
+              UPDATE playback_sessions
+              SET end_time = ?, duration_seconds = ?
+              WHERE session_id = ?
+              """;
+          try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            stmt.setLong(1, endTime);
+            stmt.setLong(2, duration);
+            stmt.setLong(3, sessionId);
+            stmt.executeUpdate();
           }
+
+          return duration > 0 ? addListeningTime(conn, guildId, userId, duration) : null;
+        });
+
+        // Apply after commit, so a leaderboard load that misses this row buffers the update
+        if (closed != null) {
+          leaderboard.update(closed.guildId(), closed.userId(), closed.totalListeningSeconds());
         }
-      }
+        return null;
+      });
+    } catch (SQLException e) {
+      logger.error("Failed to end playback session", e);
+    }
+  }
+
+  /**
+   * Adds listening time to a user's stats and reads back the new total.
+   * Must run inside a transaction on the writer connection.
+   *
+   * @param conn     The writer connection
+   * @param guildId  The guild ID
+   * @param userId   The user ID
+   * @param duration Seconds to add
+   * @return The user's new total, for the leaderboard
+   * @throws SQLException if the write fails
+   */
+  private static ClosedSession addListeningTime(Connection conn, long guildId, long userId, long duration)
+      throws SQLException {
+    String userStatsSql = """
+        INSERT INTO user_listening_stats (guild_id, user_id, total_listening_seconds, last_updated)
+        VALUES (?, ?, ?, strftime('%s', 'now'))
+        ON CONFLICT(guild_id, user_id) DO UPDATE SET
+          total_listening_seconds = total_listening_seconds + ?,
+          last_updated = strftime('%s', 'now')
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(userStatsSql)) {
+      stmt.setLong(1, guildId);
+      stmt.setLong(2, userId);
+      stmt.setLong(3, duration);
+      stmt.setLong(4, duration);
+      stmt.executeUpdate();
+    }
 
-      // Calculate duration
-      long endTime = System.currentTimeMillis() / 1000;
-      long duration = endTime - startTime;
+    // Read back the new total for the leaderboard
+    String totalSql = "SELECT total_listening_seconds FROM user_listening_stats WHERE guild_id = ? AND user_id = ?";
+    try (PreparedStatement stmt = conn.prepareStatement(totalSql)) {
+      stmt.setLong(1, guildId);
+      stmt.setLong(2, userId);
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? new ClosedSession(guildId, userId, rs.getLong(1)) : null;
+      }
+    }
+  }
 
-      // Update session
-      String updateSql = """
-          UPDATE playback_sessions
-          SET end_time = ?, duration_seconds = ?
-          WHERE session_id = ?
-          """;
-      try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
-        stmt.setLong(1, endTime);
-        stmt.setLong(2, duration);
-        stmt.setLong(3, sessionId);
-        stmt.executeUpdate();
+  /**
+   * Records a listening session that has already ended.
+   * The write is queued on the writer thread and not awaited, so this can be
+   * called from JDA event threads.
+   *
+   * @param guildId   The guild ID
+   * @param userId    The user ID
+   * @param startTime Session start as epoch seconds
+   * @param endTime   Session end as epoch seconds
+   */
+  @Override
+  public void recordListeningSession(long guildId, long userId, long startTime, long endTime) {
+    writeExecutor.execute(() -> {
+      try {
+        writeListeningSessions(List.of(new ListeningSession(guildId, userId, startTime, endTime)));
+      } catch (SQLException e) {
+        logger.error("Failed to record listening session", e);
       }
+    });
+  }
 
-      // Update user listening stats
-      if (guildId != null && userId != null && duration > 0) {
-        String userStatsSql = """
-            INSERT INTO user_listening_stats (guild_id, user_id, total_listening_seconds, last_updated)
-            VALUES (?, ?, ?, strftime('%s', 'now'))
-            ON CONFLICT(guild_id, user_id) DO UPDATE SET
-              total_listening_seconds = total_listening_seconds + ?,
-              last_updated = strftime('%s', 'now')
-            """;
-        try (PreparedStatement stmt = conn.prepareStatement(userStatsSql)) {
-          stmt.setString(1, guildId);
-          stmt.setString(2, userId);
-          stmt.setLong(3, duration);
-          stmt.setLong(4, duration);
-          stmt.executeUpdate();
+  /**
+   * Stores closed listening sessions and updates listening stats in one transaction.
+   * Runs on the writer thread.
+   *
+   * @param sessions Sessions to store
+   * @throws SQLException if the write fails
+   */
+  private void writeListeningSessions(List<ListeningSession> sessions) throws SQLException {
+    write(writerConn -> {
+      applyToLeaderboard(writeTransaction(conn -> insertListeningSessions(conn, sessions)));
+      return null;
+    });
+  }
+
+  /**
+   * Applies committed listening totals to the leaderboard.
+   * Called after commit, so a leaderboard load that misses these rows buffers the updates.
+   *
+   * @param closed New listening totals
+   */
+  private void applyToLeaderboard(List<ClosedSession> closed) {
+    for (ClosedSession session : closed) {
+      leaderboard.update(session.guildId(), session.userId(), session.totalListeningSeconds());
+    }
+  }
+
+  /**
+   * Inserts closed listening sessions and adds their time to the listening stats.
+   * Must run inside a transaction on the writer connection.
+   *
+   * @param conn     The writer connection
+   * @param sessions Sessions to store
+   * @return New listening totals of the affected users
+   * @throws SQLException if the write fails
+   */
+  private static List<ClosedSession> insertListeningSessions(Connection conn, List<ListeningSession> sessions)
+      throws SQLException {
+    List<ClosedSession> closed = new ArrayList<>();
+    String sql = """
+        INSERT INTO playback_sessions (guild_id, user_id, start_time, end_time, duration_seconds)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      for (ListeningSession session : sessions) {
+        stmt.setLong(1, session.guildId());
+        stmt.setLong(2, session.userId());
+        stmt.setLong(3, session.startTime());
+        stmt.setLong(4, session.endTime());
+        stmt.setLong(5, session.durationSeconds());
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+    }
+    for (ListeningSession session : sessions) {
+      if (session.durationSeconds() > 0) {
+        ClosedSession total = addListeningTime(conn, session.guildId(), session.userId(), session.durationSeconds());
+        if (total != null) {
+          closed.add(total);
         }
       }
-    } catch (SQLException e) {
-      logger.error("Failed to end playback session", e);
     }
+    return closed;
   }
 
   /**
@@ -275,121 +816,612 @@ public class DatabaseManager {
    * @param userId  The user ID
    * @return Total listening seconds
    */
-  public long getUserListeningTime(String guildId, String userId) {
-    try (Connection conn = getConnection()) {
-      String sql = "SELECT total_listening_seconds FROM user_listening_stats WHERE guild_id = ? AND user_id = ?";
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        stmt.setString(2, userId);
-        try (ResultSet rs = stmt.executeQuery()) {
-          if (rs.next()) {
-            return rs.getLong("total_listening_seconds");
+  public long getUserListeningTime(long guildId, long userId) {
+    try {
+      return read(conn -> {
+        String sql = "SELECT total_listening_seconds FROM user_listening_stats WHERE guild_id = ? AND user_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          stmt.setLong(1, guildId);
+          stmt.setLong(2, userId);
+          try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong("total_listening_seconds") : 0L;
           }
         }
-      }
+      });
     } catch (SQLException e) {
       logger.error("Failed to get user listening time", e);
     }
     return 0;
   }
 
+  /**
+   * String ID variant of {@link #getUserListeningTime(long, long)}.
+   *
+   * @param guildId The guild ID
+   * @param userId  The user ID
+   * @return Total listening seconds
+   */
+  public long getUserListeningTime(String guildId, String userId) {
+    return getUserListeningTime(Long.parseLong(guildId), Long.parseLong(userId));
+  }
+
   /**
    * Gets top listeners for a guild.
+   * Served from the in-memory leaderboard; the board for a guild is loaded
+   * from the database on first access. Limits above the board capacity fall
+   * back to a direct query.
    *
    * @param guildId The guild ID
    * @param limit   Number of top listeners to return
-   * @return List of maps with user_id and total_listening_seconds
-   */
-  public List<Map<String, Object>> getTopListeners(String guildId, int limit) {
-    List<Map<String, Object>> results = new ArrayList<>();
-    try (Connection conn = getConnection()) {
-      String sql = """
-          SELECT user_id, total_listening_seconds
-          FROM user_listening_stats
-          WHERE guild_id = ?
-          ORDER BY total_listening_seconds DESC
-          LIMIT ?
-          """;
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        stmt.setInt(2, limit);
-        try (ResultSet rs = stmt.executeQuery()) {
-          while (rs.next()) {
-            Map<String, Object> entry = new HashMap<>();
-            entry.put("user_id", rs.getString("user_id"));
-            entry.put("total_listening_seconds", rs.getLong("total_listening_seconds"));
-            results.add(entry);
-          }
-        }
+   * @return Top listeners in descending order of listening time
+   */
+  public List<ListenerStat> getTopListeners(long guildId, int limit) {
+    if (limit > leaderboard.getCapacity()) {
+      try {
+        return read(conn -> queryTopListeners(conn, guildId, limit));
+      } catch (SQLException e) {
+        logger.error("Failed to get top listeners", e);
+        return new ArrayList<>();
       }
+    }
+
+    List<ListenerStat> top = leaderboard.getTop(guildId, limit);
+    if (top != null) {
+      return top;
+    }
+
+    // Load on the read pool; updates committed meanwhile are buffered by the leaderboard
+    ListenerLeaderboard.PendingLoad pending = leaderboard.beginLoad(guildId);
+    try {
+      List<ListenerStat> loaded = read(conn -> queryTopListeners(conn, guildId, leaderboard.getCapacity()));
+      leaderboard.load(guildId, pending, loaded);
+      return leaderboard.getTop(guildId, limit);
     } catch (SQLException e) {
+      leaderboard.abandonLoad(guildId, pending);
       logger.error("Failed to get top listeners", e);
     }
+    return new ArrayList<>();
+  }
+
+  /**
+   * String ID variant of {@link #getTopListeners(long, int)}.
+   *
+   * @param guildId The guild ID
+   * @param limit   Number of top listeners to return
+   * @return Top listeners in descending order of listening time
+   */
+  public List<ListenerStat> getTopListeners(String guildId, int limit) {
+    return getTopListeners(Long.parseLong(guildId), limit);
+  }
+
+  /**
+   * Gets top listeners for a guild without a pending-load check.
+   * Returns null if the guild's leaderboard is not in memory yet.
+   *
+   * @param guildId The guild ID
+   * @param limit   Number of top listeners to return
+   * @return Top listeners, or null if not loaded
+   */
+  List<ListenerStat> getCachedTopListeners(long guildId, int limit) {
+    return limit > leaderboard.getCapacity() ? null : leaderboard.getTop(guildId, limit);
+  }
+
+  /**
+   * Queries top listeners for a guild directly from user_listening_stats.
+   *
+   * @param conn    The connection to use
+   * @param guildId The guild ID
+   * @param limit   Number of top listeners to return
+   * @return Top listeners in descending order of listening time
+   * @throws SQLException if the query fails
+   */
+  List<ListenerStat> queryTopListeners(Connection conn, long guildId, int limit) throws SQLException {
+    List<ListenerStat> results = new ArrayList<>();
+    String sql = """
+        SELECT user_id, total_listening_seconds
+        FROM user_listening_stats
+        WHERE guild_id = ?
+        ORDER BY total_listening_seconds DESC
+        LIMIT ?
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setLong(1, guildId);
+      stmt.setInt(2, limit);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          results.add(new ListenerStat(rs.getLong("user_id"), rs.getLong("total_listening_seconds")));
+        }
+      }
+    }
     return results;
   }
 
+  /**
+   * Gets the cached settings for a guild.
+   * Settings are loaded lazily and kept in memory, so repeated lookups
+   * (lofi starts, reconnects, volume fallbacks) cost no database reads.
+   *
+   * @param guildId The guild ID
+   * @return Settings for the guild
+   */
+  public GuildSettings getGuildSettings(long guildId) {
+    return settingsCache.get(guildId);
+  }
+
+  /**
+   * String ID variant of {@link #getGuildSettings(long)}.
+   *
+   * @param guildId The guild ID
+   * @return Settings for the guild
+   */
+  public GuildSettings getGuildSettings(String guildId) {
+    return getGuildSettings(Long.parseLong(guildId));
+  }
+
+  /**
+   * Gets the guild settings cache (for hit/miss statistics).
+   *
+   * @return GuildSettingsCache
+   */
+  public GuildSettingsCache getSettingsCache() {
+    return settingsCache;
+  }
+
+  /**
+   * Loads settings for a guild from the database.
+   *
+   * @param guildId The guild ID
+   * @return Stored settings, defaults if no row exists, or null if the read failed
+   */
+  private GuildSettings loadGuildSettings(long guildId) {
+    try {
+      return read(conn -> querySettings(conn, guildId));
+    } catch (SQLException e) {
+      logger.error("Failed to load guild settings", e);
+      return null;
+    }
+  }
+
+  /**
+   * Reads the stored settings row of a guild.
+   *
+   * @param conn    Connection to read from
+   * @param guildId The guild ID
+   * @return Stored settings, defaults if no row exists
+   * @throws SQLException if the query fails
+   */
+  private static GuildSettings querySettings(Connection conn, long guildId) throws SQLException {
+    String sql = "SELECT volume, low_cpu FROM guild_volume_settings WHERE guild_id = ?";
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setLong(1, guildId);
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? new GuildSettings(rs.getInt("volume"), rs.getInt("low_cpu") != 0)
+            : GuildSettings.defaults();
+      }
+    }
+  }
+
   /**
    * Gets the volume setting for a guild.
    *
    * @param guildId The guild ID
    * @return Volume (0-100), default 50 if not set
    */
+  public int getGuildVolume(long guildId) {
+    return getGuildSettings(guildId).getVolume();
+  }
+
+  /**
+   * String ID variant of {@link #getGuildVolume(long)}.
+   *
+   * @param guildId The guild ID
+   * @return Volume (0-100), default 50 if not set
+   */
   public int getGuildVolume(String guildId) {
-    try (Connection conn = getConnection()) {
-      String sql = "SELECT volume FROM guild_volume_settings WHERE guild_id = ?";
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        try (ResultSet rs = stmt.executeQuery()) {
-          if (rs.next()) {
-            return rs.getInt("volume");
-          }
+    return getGuildVolume(Long.parseLong(guildId));
+  }
+
+  /**
+   * Sets the volume setting for a guild.
+   * The value is written to the database and then to the settings cache.
+   *
+   * @param guildId The guild ID
+   * @param volume  Volume (0-100)
+   */
+  public void setGuildVolume(long guildId, int volume) {
+    // Clamp volume to 0-100
+    int clampedVolume = Math.max(0, Math.min(100, volume));
+
+    try {
+      write(conn -> {
+        String sql = """
+            INSERT INTO guild_volume_settings (guild_id, volume, last_updated)
+            VALUES (?, ?, strftime('%s', 'now'))
+            ON CONFLICT(guild_id) DO UPDATE SET
+              volume = ?,
+              last_updated = strftime('%s', 'now')
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          stmt.setLong(1, guildId);
+          stmt.setInt(2, clampedVolume);
+          stmt.setInt(3, clampedVolume);
+          stmt.executeUpdate();
         }
-      }
+        // Cache the stored row from the writer thread, so overlapping setting changes land in commit order
+        settingsCache.put(guildId, querySettings(conn, guildId));
+        return null;
+      });
     } catch (SQLException e) {
-      logger.error("Failed to get guild volume", e);
+      logger.error("Failed to set guild volume", e);
+      // Drop the cached value so the next read reflects what is actually stored
+      settingsCache.invalidate(guildId);
     }
-    return 50; // Default volume
   }
 
   /**
-   * Sets the volume setting for a guild.
+   * String ID variant of {@link #setGuildVolume(long, int)}.
    *
    * @param guildId The guild ID
    * @param volume  Volume (0-100)
    */
   public void setGuildVolume(String guildId, int volume) {
-    // Clamp volume to 0-100
-    volume = Math.max(0, Math.min(100, volume));
-
-    try (Connection conn = getConnection()) {
-      String sql = """
-          INSERT INTO guild_volume_settings (guild_id, volume, last_updated)
-          VALUES (?, ?, strftime('%s', 'now'))
-          ON CONFLICT(guild_id) DO UPDATE SET
-            volume = ?,
-            last_updated = strftime('%s', 'now')
-          """;
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        stmt.setString(1, guildId);
-        stmt.setInt(2, volume);
-        stmt.setInt(3, volume);
-        stmt.executeUpdate();
-      }
+    setGuildVolume(Long.parseLong(guildId), volume);
+  }
+
+  /**
+   * Turns low CPU mode on or off for a guild.
+   * The stored volume is left untouched and applies again once the mode is off.
+   *
+   * @param guildId The guild ID
+   * @param lowCpu  Whether low CPU mode is on
+   */
+  public void setGuildLowCpu(long guildId, boolean lowCpu) {
+    try {
+      write(conn -> {
+        String sql = """
+            INSERT INTO guild_volume_settings (guild_id, volume, low_cpu, last_updated)
+            VALUES (?, ?, ?, strftime('%s', 'now'))
+            ON CONFLICT(guild_id) DO UPDATE SET
+              low_cpu = ?,
+              last_updated = strftime('%s', 'now')
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          stmt.setLong(1, guildId);
+          stmt.setInt(2, DEFAULT_VOLUME);
+          stmt.setInt(3, lowCpu ? 1 : 0);
+          stmt.setInt(4, lowCpu ? 1 : 0);
+          stmt.executeUpdate();
+        }
+        settingsCache.put(guildId, querySettings(conn, guildId));
+        return null;
+      });
     } catch (SQLException e) {
-      logger.error("Failed to set guild volume", e);
+      logger.error("Failed to set guild low CPU mode", e);
+      settingsCache.invalidate(guildId);
     }
   }
 
   /**
-   * Closes the database connection.
+   * Stores the voice session of a guild, replacing the previous one.
+   *
+   * @param session The voice session
    */
-  public void close() {
+  void saveVoiceSession(VoiceSession session) {
+    saveVoiceSessions(List.of(session));
+  }
+
+  /**
+   * Stores several voice sessions in a single transaction.
+   *
+   * @param sessions The voice sessions
+   */
+  void saveVoiceSessions(Collection<VoiceSession> sessions) {
+    if (sessions.isEmpty()) {
+      return;
+    }
+    try {
+      writeTransaction(conn -> {
+        String sql = """
+            INSERT INTO voice_sessions (guild_id, channel_id, stream_url, volume, bot_id, last_updated)
+            VALUES (?, ?, ?, ?, ?, strftime('%s', 'now'))
+            ON CONFLICT(guild_id) DO UPDATE SET
+              channel_id = excluded.channel_id,
+              stream_url = excluded.stream_url,
+              volume = excluded.volume,
+              bot_id = excluded.bot_id,
+              last_updated = excluded.last_updated
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          for (VoiceSession session : sessions) {
+            stmt.setLong(1, session.guildId());
+            stmt.setLong(2, session.channelId());
+            stmt.setString(3, session.streamUrl());
+            stmt.setInt(4, session.volume());
+            stmt.setLong(5, session.botId());
+            stmt.addBatch();
+          }
+          return stmt.executeBatch();
+        }
+      });
+    } catch (SQLException e) {
+      logger.error("Failed to save voice sessions", e);
+    }
+  }
+
+  /**
+   * Removes the voice session of a guild (e.g. after the bot was told to leave).
+   *
+   * @param guildId The guild ID
+   */
+  void deleteVoiceSession(long guildId) {
     try {
-      if (connection != null && !connection.isClosed()) {
-        connection.close();
+      write(conn -> {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM voice_sessions WHERE guild_id = ?")) {
+          stmt.setLong(1, guildId);
+          return stmt.executeUpdate();
+        }
+      });
+    } catch (SQLException e) {
+      logger.error("Failed to delete voice session", e);
+    }
+  }
+
+  /**
+   * Loads all stored voice sessions.
+   *
+   * @return Stored voice sessions, empty if the read failed
+   */
+  List<VoiceSession> loadVoiceSessions() {
+    try {
+      return read(conn -> {
+        String sql = "SELECT guild_id, channel_id, stream_url, volume, bot_id FROM voice_sessions";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+          List<VoiceSession> sessions = new ArrayList<>();
+          while (rs.next()) {
+            sessions.add(new VoiceSession(rs.getLong("guild_id"), rs.getLong("channel_id"),
+                rs.getString("stream_url"), rs.getInt("volume"), rs.getLong("bot_id")));
+          }
+          return sessions;
+        }
+      });
+    } catch (SQLException e) {
+      logger.error("Failed to load voice sessions", e);
+      return List.of();
+    }
+  }
+
+  /**
+   * Starts the background compaction job for playback_sessions.
+   * Calling it again has no effect.
+   *
+   * @param retentionDays Closed sessions older than this are folded into daily rows
+   */
+  public synchronized void startSessionCompaction(int retentionDays) {
+    if (sessionCompactor != null) {
+      return;
+    }
+    sessionCompactor = new SessionCompactor(this, retentionDays);
+    sessionCompactor.start();
+  }
+
+  /**
+   * Gets the report of the most recent compaction run.
+   *
+   * @return Last compaction report, or null if compaction has not run yet
+   */
+  public CompactionReport getLastCompactionReport() {
+    SessionCompactor compactor = sessionCompactor;
+    return compactor != null ? compactor.getLastReport() : null;
+  }
+
+  /**
+   * Gets the current database size and playback session row counts.
+   *
+   * @return Database stats
+   * @throws SQLException if the database cannot be read
+   */
+  public DatabaseStats getDatabaseStats() throws SQLException {
+    return read(conn -> new DatabaseStats(
+        queryLong(conn, "PRAGMA page_count") * queryLong(conn, "PRAGMA page_size"),
+        queryLong(conn, "PRAGMA freelist_count"),
+        queryLong(conn, "SELECT COUNT(*) FROM playback_sessions"),
+        queryLong(conn, "SELECT COUNT(*) FROM playback_session_daily")));
+  }
+
+  private static long queryLong(Connection conn, String sql) throws SQLException {
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(sql)) {
+      return rs.next() ? rs.getLong(1) : 0L;
+    }
+  }
+
+  /**
+   * Flushes buffered statistics to disk.
+   */
+  @Override
+  public void flush() {
+    JournalStatsStorage currentJournal = journal;
+    if (currentJournal != null) {
+      currentJournal.flush();
+    }
+    writeBehind.flush();
+  }
+
+  /**
+   * Gets the storage that statistics events should be recorded through.
+   * This is the manager itself unless the stats journal has been enabled.
+   *
+   * @return Active stats storage
+   */
+  public StatsStorage getStatsStorage() {
+    return statsStorage;
+  }
+
+  /**
+   * Switches statistics recording to the memory-mapped journal.
+   * Segments left by a previous run are replayed first. If the journal
+   * cannot be opened, recording stays on the SQLite write-behind path.
+   */
+  public synchronized void enableStatsJournal() {
+    if (journal != null) {
+      return;
+    }
+    JournalStatsStorage storage = new JournalStatsStorage(this, Path.of(JOURNAL_DIR));
+    try {
+      storage.start();
+      journal = storage;
+      statsStorage = storage;
+    } catch (IOException | SQLException e) {
+      logger.error("Failed to open stats journal, keeping SQLite write-behind", e);
+    }
+  }
+
+  /**
+   * Folds a batch of journal records into the aggregates and records how far
+   * the segment has been folded, all in one transaction.
+   *
+   * @param commandUsage  (guildId, commandName) -> usage count to add
+   * @param buckets       (guildId, hour) -> counters to add
+   * @param sessions      Closed listening sessions
+   * @param segmentId     The journal segment the records came from
+   * @param foldedRecords Records of the segment folded after this batch
+   * @return true if the batch was committed, false otherwise
+   */
+  boolean writeJournalBatch(Map<StatsWriteBehind.CommandKey, Long> commandUsage, Map<StatsBucket, GuildStats> buckets,
+      List<ListeningSession> sessions, long segmentId, int foldedRecords) {
+    try {
+      write(writerConn -> {
+        List<ClosedSession> closed = writeTransaction(conn -> {
+          writeStats(conn, commandUsage, buckets);
+          List<ClosedSession> totals = insertListeningSessions(conn, sessions);
+
+          String sql = """
+              INSERT INTO stats_journal_segments (segment_id, folded_records)
+              VALUES (?, ?)
+              ON CONFLICT(segment_id) DO UPDATE SET folded_records = excluded.folded_records
+              """;
+          try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, segmentId);
+            stmt.setInt(2, foldedRecords);
+            stmt.executeUpdate();
+          }
+          return totals;
+        });
+        applyToLeaderboard(closed);
+        return null;
+      });
+      return true;
+    } catch (SQLException e) {
+      logger.error("Failed to fold stats journal batch", e);
+      return false;
+    }
+  }
+
+  /**
+   * Gets how many records of a journal segment have been folded.
+   *
+   * @param segmentId The journal segment
+   * @return Folded record count, 0 if the segment is unknown
+   * @throws SQLException if the read fails
+   */
+  int getJournalFoldedRecords(long segmentId) throws SQLException {
+    return read(conn -> {
+      String sql = "SELECT folded_records FROM stats_journal_segments WHERE segment_id = ?";
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        stmt.setLong(1, segmentId);
+        try (ResultSet rs = stmt.executeQuery()) {
+          return rs.next() ? rs.getInt(1) : 0;
+        }
+      }
+    });
+  }
+
+  /**
+   * Forgets the folded position of a deleted journal segment.
+   *
+   * @param segmentId The journal segment
+   * @throws SQLException if the delete fails
+   */
+  void deleteJournalSegment(long segmentId) throws SQLException {
+    write(conn -> {
+      try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM stats_journal_segments WHERE segment_id = ?")) {
+        stmt.setLong(1, segmentId);
+        return stmt.executeUpdate();
+      }
+    });
+  }
+
+  /**
+   * Forgets the folded positions of all journal segments except the given ones.
+   *
+   * @param segmentIds Segments whose files still exist
+   * @throws SQLException if the delete fails
+   */
+  void retainJournalSegments(List<Long> segmentIds) throws SQLException {
+    write(conn -> {
+      List<Long> stale = new ArrayList<>();
+      try (Statement stmt = conn.createStatement();
+          ResultSet rs = stmt.executeQuery("SELECT segment_id FROM stats_journal_segments")) {
+        while (rs.next()) {
+          if (!segmentIds.contains(rs.getLong(1))) {
+            stale.add(rs.getLong(1));
+          }
+        }
+      }
+      try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM stats_journal_segments WHERE segment_id = ?")) {
+        for (long segmentId : stale) {
+          stmt.setLong(1, segmentId);
+          stmt.addBatch();
+        }
+        stmt.executeBatch();
       }
+      return null;
+    });
+  }
+
+  /**
+   * Flushes buffered statistics and closes all database connections.
+   */
+  public void close() {
+    logger.info("Guild settings cache: {} entries, {} hits, {} misses, {} evictions",
+        settingsCache.size(), settingsCache.getHits(), settingsCache.getMisses(), settingsCache.getEvictions());
+
+    async.shutdown();
+    if (journal != null) {
+      statsStorage = this;
+      journal.close();
+    }
+    if (sessionCompactor != null) {
+      sessionCompactor.shutdown();
+    }
+    writeBehind.shutdown();
+
+    try {
+      write(conn -> {
+        conn.close();
+        return null;
+      });
     } catch (SQLException e) {
-      logger.error("Failed to close database connection", e);
+      logger.error("Failed to close database writer connection", e);
+    }
+    writeExecutor.shutdown();
+    try {
+      if (!writeExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+        writeExecutor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      writeExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+
+    Connection conn;
+    while ((conn = readConnections.poll()) != null) {
+      try {
+        conn.close();
+      } catch (SQLException e) {
+        logger.error("Failed to close database read connection", e);
+      }
     }
   }
 }
@@ -0,0 +1,12 @@
+package managers;
+
+/**
+ * Size and row counts of the database at a point in time.
+ *
+ * @param sizeBytes     Size of the main database file (page count * page size)
+ * @param freePages     Pages on the freelist, reclaimable by incremental vacuum
+ * @param sessionRows   Rows in playback_sessions
+ * @param dailyRows     Rows in playback_session_daily
+ */
+public record DatabaseStats(long sizeBytes, long freePages, long sessionRows, long dailyRows) {
+}
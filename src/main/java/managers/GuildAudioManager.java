@@ -3,8 +3,6 @@ package managers;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 
-import java.nio.ByteBuffer;
-
 /**
  * Manages audio for a specific guild.
  */
@@ -12,11 +10,13 @@ public class GuildAudioManager {
   private final AudioPlayer player;
   private final AudioPlayerSendHandler sendHandler;
   private final TrackScheduler scheduler;
+  private final StallWatchdog watchdog;
 
-  public GuildAudioManager(AudioPlayer player) {
+  public GuildAudioManager(AudioPlayer player, long guildId, long stallThresholdMs) {
     this.player = player;
-    this.sendHandler = new AudioPlayerSendHandler(player);
     this.scheduler = new TrackScheduler(player);
+    this.watchdog = new StallWatchdog("guild " + guildId, player, scheduler, stallThresholdMs);
+    this.sendHandler = new AudioPlayerSendHandler(player, scheduler, watchdog);
     player.addListener(scheduler);
   }
 
@@ -31,35 +31,8 @@ public class GuildAudioManager {
   public TrackScheduler getScheduler() {
     return scheduler;
   }
-}
-
-/**
- * AudioSendHandler implementation for LavaPlayer.
- */
-class AudioPlayerSendHandler implements AudioSendHandler {
-  private final AudioPlayer audioPlayer;
-  private com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame lastFrame;
-
-  public AudioPlayerSendHandler(AudioPlayer audioPlayer) {
-    this.audioPlayer = audioPlayer;
-  }
-
-  @Override
-  public boolean canProvide() {
-    lastFrame = audioPlayer.provide();
-    return lastFrame != null;
-  }
-
-  @Override
-  public ByteBuffer provide20MsAudio() {
-    if (lastFrame == null) {
-      return null;
-    }
-    return ByteBuffer.wrap(lastFrame.getData());
-  }
 
-  @Override
-  public boolean isOpus() {
-    return true;
+  public StallStats getStallStats() {
+    return watchdog.getStats();
   }
 }
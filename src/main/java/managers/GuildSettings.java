@@ -0,0 +1,66 @@
+package managers;
+
+/**
+ * Immutable snapshot of the per-guild settings stored in the database.
+ */
+public class GuildSettings {
+  /**
+   * Volume at which lavaplayer applies no gain, the only volume that allows Opus passthrough.
+   */
+  public static final int UNITY_VOLUME = 100;
+
+  private final int volume;
+  private final boolean lowCpu;
+
+  public GuildSettings(int volume, boolean lowCpu) {
+    this.volume = volume;
+    this.lowCpu = lowCpu;
+  }
+
+  /**
+   * Gets the default settings used for guilds without a stored row.
+   *
+   * @return Default GuildSettings
+   */
+  public static GuildSettings defaults() {
+    return new GuildSettings(DatabaseManager.DEFAULT_VOLUME, false);
+  }
+
+  public int getVolume() {
+    return volume;
+  }
+
+  public boolean isLowCpu() {
+    return lowCpu;
+  }
+
+  /**
+   * Gets the volume the guild's player should run at.
+   * In low CPU mode this is unity gain regardless of the stored volume.
+   *
+   * @return Playback volume (0-100)
+   */
+  public int getPlaybackVolume() {
+    return lowCpu ? UNITY_VOLUME : volume;
+  }
+
+  /**
+   * Creates a copy of these settings with a different volume.
+   *
+   * @param volume Volume (0-100)
+   * @return New GuildSettings
+   */
+  public GuildSettings withVolume(int volume) {
+    return new GuildSettings(volume, lowCpu);
+  }
+
+  /**
+   * Creates a copy of these settings with low CPU mode turned on or off.
+   *
+   * @param lowCpu Whether low CPU mode is on
+   * @return New GuildSettings
+   */
+  public GuildSettings withLowCpu(boolean lowCpu) {
+    return new GuildSettings(volume, lowCpu);
+  }
+}
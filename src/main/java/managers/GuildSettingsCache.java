@@ -0,0 +1,149 @@
+package managers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded in-memory cache of guild settings in front of the database.
+ * Entries are loaded lazily on first access, updated on write-through and
+ * evicted in least-recently-used order once the cache is full, so guilds
+ * that have been idle the longest are dropped first.
+ */
+public class GuildSettingsCache {
+  private final int capacity;
+  private final LongFunction<GuildSettings> loader;
+  private final Map<Long, GuildSettings> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Creates a cache.
+   *
+   * @param capacity Maximum number of guilds kept in memory
+   * @param loader   Loads settings for a guild on a cache miss (null if the load failed)
+   */
+  GuildSettingsCache(int capacity, LongFunction<GuildSettings> loader) {
+    this.capacity = capacity;
+    this.loader = loader;
+    // Access-ordered map so iteration starts at the least recently used guild
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, GuildSettings> eldest) {
+        if (size() > GuildSettingsCache.this.capacity) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Gets the settings for a guild, loading them on a miss.
+   * The loader runs outside the lock so a slow read does not block other guilds.
+   *
+   * @param guildId The guild ID
+   * @return Settings for the guild
+   */
+  public GuildSettings get(long guildId) {
+    synchronized (entries) {
+      GuildSettings cached = entries.get(guildId);
+      if (cached != null) {
+        hits.incrementAndGet();
+        return cached;
+      }
+    }
+
+    misses.incrementAndGet();
+    GuildSettings loaded = loader.apply(guildId);
+    if (loaded == null) {
+      // Don't cache defaults for a failed load, retry on the next access
+      return GuildSettings.defaults();
+    }
+    synchronized (entries) {
+      // Keep a value written through while we were loading
+      GuildSettings existing = entries.putIfAbsent(guildId, loaded);
+      return existing != null ? existing : loaded;
+    }
+  }
+
+  /**
+   * Gets the settings for a guild only if they are already cached.
+   *
+   * @param guildId The guild ID
+   * @return Cached settings, or null if not cached
+   */
+  public GuildSettings getIfPresent(long guildId) {
+    synchronized (entries) {
+      GuildSettings cached = entries.get(guildId);
+      if (cached != null) {
+        hits.incrementAndGet();
+      }
+      return cached;
+    }
+  }
+
+  /**
+   * Stores settings after they have been written to the database.
+   *
+   * @param guildId  The guild ID
+   * @param settings The new settings
+   */
+  public void put(long guildId, GuildSettings settings) {
+    synchronized (entries) {
+      entries.put(guildId, settings);
+    }
+  }
+
+  /**
+   * Removes a guild from the cache.
+   *
+   * @param guildId The guild ID
+   */
+  public void invalidate(long guildId) {
+    synchronized (entries) {
+      entries.remove(guildId);
+    }
+  }
+
+  /**
+   * Gets the number of cached guilds.
+   *
+   * @return Cache size
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Gets the number of lookups answered from the cache.
+   *
+   * @return Cache hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Gets the number of lookups that had to load settings from the database.
+   *
+   * @return Cache misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Gets the number of guilds dropped to stay within the capacity.
+   *
+   * @return Cache evictions
+   */
+  public long getEvictions() {
+    return evictions.get();
+  }
+}
@@ -0,0 +1,21 @@
+package managers;
+
+/**
+ * Command and playback counters of a guild over some time window.
+ *
+ * @param commandCount    Number of commands used
+ * @param playbackSeconds Seconds of music played
+ */
+public record GuildStats(long commandCount, long playbackSeconds) {
+  public static final GuildStats EMPTY = new GuildStats(0, 0);
+
+  /**
+   * Adds two sets of counters.
+   *
+   * @param other Counters to add
+   * @return The summed counters
+   */
+  public GuildStats plus(GuildStats other) {
+    return new GuildStats(commandCount + other.commandCount, playbackSeconds + other.playbackSeconds);
+  }
+}
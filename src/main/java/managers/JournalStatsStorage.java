@@ -0,0 +1,465 @@
+package managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Stats storage that appends events to a memory-mapped journal.
+ * Each event is a fixed-size record written into a pre-mapped segment file,
+ * so recording is a slot reservation plus a few stores, with no locks and no
+ * SQLite work on the caller's thread. A folder thread reads the published
+ * records in order and folds them into the SQLite aggregates. The folded
+ * position of each segment is stored in the same transaction, so records that
+ * were not folded before a crash or restart are replayed exactly once.
+ */
+class JournalStatsStorage implements StatsStorage {
+  private static final Logger logger = LoggerFactory.getLogger(JournalStatsStorage.class);
+  private static final int RECORD_SIZE = 80;
+  private static final int SEGMENT_RECORDS = 65536;
+  private static final long FOLD_INTERVAL_MS = 1000;
+  private static final int MAX_FOLD_BATCH = 10000;
+  private static final int MAX_NAME_BYTES = 32;
+  private static final String SEGMENT_PREFIX = "stats-";
+  private static final String SEGMENT_SUFFIX = ".journal";
+
+  private static final int TYPE_COMMAND = 1;
+  private static final int TYPE_PLAYBACK = 2;
+  private static final int TYPE_SESSION = 3;
+  private static final int TYPE_TOMBSTONE = 4; // A slot whose write failed, skipped by the folder
+
+  // Record layout; the header (type | name length << 8) is written last and marks the record as published
+  private static final int OFFSET_HEADER = 0;
+  private static final int OFFSET_CHECKSUM = 4;
+  private static final int OFFSET_TIMESTAMP = 8;
+  private static final int OFFSET_GUILD = 16;
+  private static final int OFFSET_USER = 24;
+  private static final int OFFSET_VALUE = 32;
+  private static final int OFFSET_VALUE2 = 40;
+  private static final int OFFSET_NAME = 48;
+
+  private static final VarHandle HEADER =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private final DatabaseManager databaseManager;
+  private final Path directory;
+  private final List<Segment> segments = new CopyOnWriteArrayList<>(); // Oldest first
+  private final ScheduledExecutorService folder;
+  private volatile Segment current;
+  private volatile boolean closed;
+
+  JournalStatsStorage(DatabaseManager databaseManager, Path directory) {
+    this.databaseManager = databaseManager;
+    this.directory = directory;
+    this.folder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "stats-journal-folder");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Opens the journal, replays segments left by a previous run and starts the folder.
+   *
+   * @throws IOException  if the journal directory or a segment cannot be opened
+   * @throws SQLException if the folded positions cannot be read
+   */
+  void start() throws IOException, SQLException {
+    Files.createDirectories(directory);
+
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.filter(path -> segmentId(path) > 0)
+          .sorted((a, b) -> Long.compare(segmentId(a), segmentId(b)))
+          .toList();
+    }
+
+    long nextId = 1;
+    for (Path file : files) {
+      long id = segmentId(file);
+      Segment segment = Segment.open(file, id);
+      segment.recovered = true;
+      segment.folded = databaseManager.getJournalFoldedRecords(id);
+      segments.add(segment);
+      nextId = id + 1;
+    }
+    // Drop positions of segments whose file is gone, so a reused ID never starts part-way
+    databaseManager.retainJournalSegments(segments.stream().map(segment -> segment.id).toList());
+
+    current = Segment.open(directory.resolve(SEGMENT_PREFIX + nextId + SEGMENT_SUFFIX), nextId);
+    segments.add(current);
+
+    if (!files.isEmpty()) {
+      long replayed = foldAll();
+      logger.info("Replayed {} stats journal records from {} segment(s)", replayed, files.size());
+    }
+
+    folder.scheduleWithFixedDelay(this::foldSafely, FOLD_INTERVAL_MS, FOLD_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    logger.info("Stats journal enabled at {} ({} records per segment)", directory, SEGMENT_RECORDS);
+  }
+
+  @Override
+  public void recordCommandUsage(long guildId, String commandName) {
+    if (!append(TYPE_COMMAND, guildId, 0, 0, 0, commandName)) {
+      databaseManager.recordCommandUsage(guildId, commandName);
+    }
+  }
+
+  @Override
+  public void addGuildPlaybackTime(long guildId, long seconds) {
+    if (!append(TYPE_PLAYBACK, guildId, 0, seconds, 0, null)) {
+      databaseManager.addGuildPlaybackTime(guildId, seconds);
+    }
+  }
+
+  @Override
+  public void recordListeningSession(long guildId, long userId, long startTime, long endTime) {
+    if (!append(TYPE_SESSION, guildId, userId, startTime, endTime, null)) {
+      databaseManager.recordListeningSession(guildId, userId, startTime, endTime);
+    }
+  }
+
+  @Override
+  public void flush() {
+    try {
+      folder.submit(this::foldAll).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      logger.error("Error flushing stats journal", e);
+    }
+  }
+
+  /**
+   * Appends a record to the current segment, rolling to a new segment when it is full.
+   *
+   * @return true if the record was journaled, false if the caller should fall back to the database
+   */
+  private boolean append(int type, long guildId, long userId, long value, long value2, String name) {
+    while (!closed) {
+      Segment segment = current;
+      int index = segment.reserved.getAndIncrement();
+      if (index < SEGMENT_RECORDS) {
+        boolean written = false;
+        try {
+          segment.write(index, type, guildId, userId, value, value2, name);
+          written = true;
+        } catch (RuntimeException e) {
+          logger.error("Failed to write stats journal record, writing it to the database directly", e);
+          return false;
+        } finally {
+          if (!written) {
+            // The folder stops at the first unpublished slot, so a reserved slot must always be published
+            segment.tombstone(index);
+          }
+        }
+        return true;
+      }
+      if (!roll(segment)) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Replaces a full segment with a new one.
+   *
+   * @param full The segment that ran out of slots
+   * @return true if a segment with free slots is current, false if a new one could not be opened
+   */
+  private synchronized boolean roll(Segment full) {
+    if (current != full) {
+      return true; // Another thread already rolled
+    }
+    long id = full.id + 1;
+    try {
+      Segment next = Segment.open(directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX), id);
+      segments.add(next);
+      current = next;
+      return true;
+    } catch (IOException e) {
+      logger.error("Failed to open stats journal segment {}, writing stats to the database directly", id, e);
+      return false;
+    }
+  }
+
+  private void foldSafely() {
+    try {
+      foldAll();
+    } catch (Exception e) {
+      logger.error("Error folding stats journal", e);
+    }
+  }
+
+  /**
+   * Folds every published record into the database and deletes finished segments.
+   * Runs on the folder thread (or during start, before the folder is scheduled).
+   *
+   * @return Number of records folded
+   */
+  private long foldAll() {
+    long total = 0;
+    for (Segment segment : segments) {
+      total += foldSegment(segment);
+      boolean finished = segment.truncated
+          || (segment.recovered ? !segment.hasPublished(segment.folded) : segment.folded == SEGMENT_RECORDS);
+      if (finished && segment != current) {
+        retire(segment);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Folds the published records of one segment in batches.
+   *
+   * @param segment The segment to fold
+   * @return Number of records folded
+   */
+  private long foldSegment(Segment segment) {
+    long total = 0;
+    while (true) {
+      int start = segment.folded;
+      int limit = Math.min(SEGMENT_RECORDS, start + MAX_FOLD_BATCH);
+      Map<StatsWriteBehind.CommandKey, Long> commandUsage = new HashMap<>();
+      Map<StatsBucket, GuildStats> buckets = new HashMap<>();
+      List<ListeningSession> sessions = new ArrayList<>();
+
+      int end = start;
+      while (end < limit && segment.hasPublished(end)) {
+        if (!segment.decode(end, commandUsage, buckets, sessions)) {
+          // A torn record can only be the tail of a segment written before a crash
+          logger.warn("Corrupt record {} in stats journal segment {}, ignoring the rest of it", end, segment.id);
+          segment.truncated = true;
+          break;
+        }
+        end++;
+      }
+      if (end == start) {
+        return total;
+      }
+      if (!databaseManager.writeJournalBatch(commandUsage, buckets, sessions, segment.id, end)) {
+        return total; // Retried on the next run
+      }
+      segment.folded = end;
+      total += end - start;
+    }
+  }
+
+  /**
+   * Deletes a fully folded segment.
+   * The file goes before its folded position, so a crash in between can never cause a replay.
+   *
+   * @param segment The segment to delete
+   */
+  private void retire(Segment segment) {
+    segments.remove(segment);
+    segment.close();
+    try {
+      Files.deleteIfExists(segment.path);
+      databaseManager.deleteJournalSegment(segment.id);
+    } catch (IOException | SQLException e) {
+      logger.error("Failed to delete stats journal segment {}", segment.id, e);
+    }
+  }
+
+  /**
+   * Folds remaining records and stops the folder.
+   * Records appended after this point go straight to the database; a record
+   * whose slot was reserved just before is replayed on the next start if the
+   * last fold missed it.
+   */
+  void close() {
+    closed = true;
+    folder.shutdown();
+    try {
+      if (!folder.awaitTermination(5, TimeUnit.SECONDS)) {
+        folder.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      folder.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+
+    foldAll();
+    for (Segment segment : segments) {
+      segment.buffer.force();
+      segment.close();
+    }
+  }
+
+  private static long segmentId(Path path) {
+    String name = path.getFileName().toString();
+    if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * One pre-sized, memory-mapped journal file.
+   */
+  private static final class Segment {
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final AtomicInteger reserved = new AtomicInteger();
+    private int folded; // Folder thread only
+    private boolean recovered; // Left by a previous run, never appended to
+    private boolean truncated; // Hit a corrupt record, nothing after it is read
+
+    private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.buffer = buffer;
+    }
+
+    static Segment open(Path path, long id) throws IOException {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SEGMENT_RECORDS * RECORD_SIZE);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return new Segment(id, path, channel, buffer);
+    }
+
+    /**
+     * Writes a record into a reserved slot and publishes it.
+     */
+    void write(int index, int type, long guildId, long userId, long value, long value2, String name) {
+      int base = index * RECORD_SIZE;
+      buffer.putLong(base + OFFSET_TIMESTAMP, System.currentTimeMillis() / 1000);
+      buffer.putLong(base + OFFSET_GUILD, guildId);
+      buffer.putLong(base + OFFSET_USER, userId);
+      buffer.putLong(base + OFFSET_VALUE, value);
+      buffer.putLong(base + OFFSET_VALUE2, value2);
+      int nameLength = name != null ? putName(base + OFFSET_NAME, name) : 0;
+
+      int header = type | nameLength << 8;
+      buffer.putInt(base + OFFSET_CHECKSUM, checksum(base, header));
+      HEADER.setRelease(buffer, base + OFFSET_HEADER, header);
+    }
+
+    /**
+     * Publishes a reserved slot whose write failed as a tombstone.
+     */
+    void tombstone(int index) {
+      int base = index * RECORD_SIZE;
+      buffer.putInt(base + OFFSET_CHECKSUM, checksum(base, TYPE_TOMBSTONE));
+      HEADER.setRelease(buffer, base + OFFSET_HEADER, TYPE_TOMBSTONE);
+    }
+
+    /**
+     * Writes a command name, avoiding an encoder allocation for the usual ASCII names.
+     * Names longer than MAX_NAME_BYTES are cut at a character boundary.
+     *
+     * @return Number of bytes written
+     */
+    private int putName(int offset, String name) {
+      int length = Math.min(name.length(), MAX_NAME_BYTES);
+      for (int i = 0; i < length; i++) {
+        char c = name.charAt(i);
+        if (c >= 0x80) {
+          byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+          int byteLength = Math.min(bytes.length, MAX_NAME_BYTES);
+          // Cut before a character whose bytes would not all fit, not in the middle of it
+          while (byteLength < bytes.length && byteLength > 0 && (bytes[byteLength] & 0xC0) == 0x80) {
+            byteLength--;
+          }
+          buffer.put(offset, bytes, 0, byteLength);
+          return byteLength;
+        }
+        buffer.put(offset + i, (byte) c);
+      }
+      return length;
+    }
+
+    boolean hasPublished(int index) {
+      return index < SEGMENT_RECORDS && (int) HEADER.getAcquire(buffer, index * RECORD_SIZE + OFFSET_HEADER) != 0;
+    }
+
+    /**
+     * Adds a published record to a fold batch. Tombstones add nothing.
+     *
+     * @return false if the record fails its checksum
+     */
+    boolean decode(int index, Map<StatsWriteBehind.CommandKey, Long> commandUsage,
+        Map<StatsBucket, GuildStats> buckets, List<ListeningSession> sessions) {
+      int base = index * RECORD_SIZE;
+      int header = (int) HEADER.getAcquire(buffer, base + OFFSET_HEADER);
+      if (buffer.getInt(base + OFFSET_CHECKSUM) != checksum(base, header)) {
+        return false;
+      }
+
+      long timestamp = buffer.getLong(base + OFFSET_TIMESTAMP);
+      long guildId = buffer.getLong(base + OFFSET_GUILD);
+      switch (header & 0xFF) {
+        case TYPE_COMMAND -> {
+          byte[] name = new byte[(header >>> 8) & 0xFF];
+          buffer.get(base + OFFSET_NAME, name);
+          commandUsage.merge(new StatsWriteBehind.CommandKey(guildId, new String(name, StandardCharsets.UTF_8)),
+              1L, Long::sum);
+          buckets.merge(StatsBucket.hourOf(guildId, timestamp), new GuildStats(1, 0), GuildStats::plus);
+        }
+        case TYPE_PLAYBACK -> StatsBucket.addPlayback(buckets, guildId, timestamp,
+            buffer.getLong(base + OFFSET_VALUE));
+        case TYPE_SESSION -> sessions.add(new ListeningSession(guildId, buffer.getLong(base + OFFSET_USER),
+            buffer.getLong(base + OFFSET_VALUE), buffer.getLong(base + OFFSET_VALUE2)));
+        case TYPE_TOMBSTONE -> {
+          // Nothing to fold
+        }
+        default -> {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Mixes the header and payload of a record into a 32-bit checksum.
+     */
+    private int checksum(int base, int header) {
+      long hash = header * 0x9E3779B97F4A7C15L;
+      for (int offset = OFFSET_TIMESTAMP; offset < RECORD_SIZE; offset += Long.BYTES) {
+        hash = (hash ^ buffer.getLong(base + offset)) * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+      }
+      return (int) (hash ^ (hash >>> 32));
+    }
+
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.warn("Failed to close stats journal segment {}", id, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory top-K listener leaderboard per guild.
+ * Boards are built lazily from user_listening_stats and then kept up to date
+ * as playback sessions close, so reads never touch the database.
+ * Listening totals only ever grow, which means a user that drops out of the
+ * top K can only come back through an update we see here.
+ * Boards are read on the database read pool while updates arrive on the
+ * writer thread. Updates that arrive during a load are buffered and applied
+ * on top of the loaded board, so none are lost between the read and the install.
+ */
+public class ListenerLeaderboard {
+  private final int capacity;
+  private final Map<Long, Board> boards = new ConcurrentHashMap<>();
+  private final Map<Long, PendingLoad> pendingLoads = new ConcurrentHashMap<>();
+
+  ListenerLeaderboard(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Gets the number of entries kept per guild.
+   *
+   * @return Leaderboard capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the current top listeners for a guild if its board is loaded.
+   *
+   * @param guildId The guild ID
+   * @param limit   Number of entries to return (at most the capacity)
+   * @return Top listeners, or null if the board has not been loaded yet
+   */
+  List<ListenerStat> getTop(long guildId, int limit) {
+    Board board = boards.get(guildId);
+    if (board == null) {
+      return null;
+    }
+    List<ListenerStat> top = board.snapshot;
+    return top.size() <= limit ? top : top.subList(0, limit);
+  }
+
+  /**
+   * Starts loading the board for a guild.
+   * Must be called before the database read so updates committed after the
+   * read's snapshot are buffered for {@link #load(long, PendingLoad, List)}.
+   *
+   * @param guildId The guild ID
+   * @return Handle to pass to load
+   */
+  PendingLoad beginLoad(long guildId) {
+    return pendingLoads.computeIfAbsent(guildId, id -> new PendingLoad());
+  }
+
+  /**
+   * Installs a board loaded from the database together with the updates
+   * buffered since the load began. A board that is already installed wins.
+   *
+   * @param guildId The guild ID
+   * @param pending Handle returned by beginLoad
+   * @param top     Top listeners in descending order (at most the capacity)
+   */
+  void load(long guildId, PendingLoad pending, List<ListenerStat> top) {
+    synchronized (pending) {
+      if (pending.board == null) {
+        Board board = new Board();
+        board.entries.addAll(top);
+        for (ListenerStat stat : pending.updates) {
+          board.update(stat, capacity);
+        }
+        board.publish();
+        Board existing = boards.putIfAbsent(guildId, board);
+        pending.board = existing != null ? existing : board;
+        pending.updates.clear();
+      }
+    }
+    pendingLoads.remove(guildId, pending);
+  }
+
+  /**
+   * Gives up a load whose database read failed, so its buffer is not kept around.
+   *
+   * @param guildId The guild ID
+   * @param pending Handle returned by beginLoad
+   */
+  void abandonLoad(long guildId, PendingLoad pending) {
+    pendingLoads.remove(guildId, pending);
+  }
+
+  /**
+   * Applies a new listening total for a user.
+   * Guilds whose board has not been loaded are skipped; they are read fresh on first access.
+   *
+   * @param guildId      The guild ID
+   * @param userId       The user ID
+   * @param totalSeconds The user's new total listening seconds
+   */
+  void update(long guildId, long userId, long totalSeconds) {
+    ListenerStat stat = new ListenerStat(userId, totalSeconds);
+    // Check the pending load before the boards: load installs the board before
+    // it drops the pending entry, so one of the two lookups always sees it
+    PendingLoad pending = pendingLoads.get(guildId);
+    if (pending != null) {
+      synchronized (pending) {
+        if (pending.board != null) {
+          pending.board.update(stat, capacity); // Installed while we were looking
+        } else {
+          pending.updates.add(stat);
+        }
+      }
+      return;
+    }
+
+    Board board = boards.get(guildId);
+    if (board != null) {
+      board.update(stat, capacity);
+    }
+  }
+
+  /**
+   * Drops the board for a guild so it is rebuilt on next access.
+   *
+   * @param guildId The guild ID
+   */
+  void invalidate(long guildId) {
+    boards.remove(guildId);
+  }
+
+  /**
+   * A board load in progress. Guarded by its own monitor.
+   */
+  static final class PendingLoad {
+    private final List<ListenerStat> updates = new ArrayList<>();
+    private Board board;
+  }
+
+  /**
+   * Top-K entries for one guild, sorted by listening time descending.
+   */
+  private static class Board {
+    private final List<ListenerStat> entries = new ArrayList<>();
+    private volatile List<ListenerStat> snapshot = Collections.emptyList();
+
+    synchronized void update(ListenerStat stat, int capacity) {
+      int index = -1;
+      for (int i = 0; i < entries.size(); i++) {
+        if (entries.get(i).userId() == stat.userId()) {
+          index = i;
+          break;
+        }
+      }
+
+      if (index >= 0) {
+        if (entries.get(index).totalListeningSeconds() >= stat.totalListeningSeconds()) {
+          return; // Totals only grow, so this update is already reflected
+        }
+        entries.remove(index);
+      } else if (entries.size() >= capacity
+          && stat.totalListeningSeconds() <= entries.get(entries.size() - 1).totalListeningSeconds()) {
+        return; // Not enough to enter the board
+      }
+
+      // Insert at the sorted position
+      int position = 0;
+      while (position < entries.size()
+          && entries.get(position).totalListeningSeconds() >= stat.totalListeningSeconds()) {
+        position++;
+      }
+      entries.add(position, stat);
+      if (entries.size() > capacity) {
+        entries.remove(entries.size() - 1);
+      }
+      publish();
+    }
+
+    private void publish() {
+      snapshot = List.copyOf(entries);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package managers;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.GuildVoiceState;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses playback in voice channels that have no human listeners.
+ * After a grace period without listeners the guild's playback is paused, which
+ * releases its upstream connection; after a longer idle time the guild's
+ * player can be destroyed as well. The voice connection is kept throughout,
+ * and playback resumes as soon as someone joins.
+ */
+public class ListenerPresenceTracker {
+  private static final Logger logger = LoggerFactory.getLogger(ListenerPresenceTracker.class);
+
+  private final VoiceManager voiceManager;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "voice-presence");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Map<Long, ScheduledFuture<?>> pendingPauses = new ConcurrentHashMap<>();
+  private final Map<Long, ScheduledFuture<?>> pendingEvictions = new ConcurrentHashMap<>();
+  private volatile long pauseDelaySeconds = 60;
+  private volatile long evictDelaySeconds = 30 * 60;
+
+  ListenerPresenceTracker(VoiceManager voiceManager) {
+    this.voiceManager = voiceManager;
+  }
+
+  /**
+   * Sets the idle delays.
+   *
+   * @param pauseSeconds Seconds without listeners before playback is paused (0 disables pausing)
+   * @param evictMinutes Minutes paused before the player is destroyed (0 keeps the player)
+   */
+  public void configure(int pauseSeconds, int evictMinutes) {
+    this.pauseDelaySeconds = Math.max(0, pauseSeconds);
+    this.evictDelaySeconds = Math.max(0, evictMinutes) * 60L;
+    logger.info("Idle playback: pause after {}s without listeners, release player after {}",
+        pauseDelaySeconds, evictDelaySeconds > 0 ? (evictMinutes + " min") : "never");
+  }
+
+  /**
+   * Re-evaluates a guild after a voice state change.
+   *
+   * @param guild The guild whose voice state changed
+   */
+  public synchronized void onVoiceUpdate(Guild guild) {
+    long guildId = guild.getIdLong();
+    AudioChannel channel = botChannel(guild);
+    if (channel == null) {
+      cancel(guildId); // Not connected, reconnect handling re-evaluates once back in a channel
+      return;
+    }
+
+    if (hasListeners(channel)) {
+      cancel(guildId);
+      voiceManager.resumePlayback(guild);
+    } else if (pauseDelaySeconds > 0 && !pendingPauses.containsKey(guildId) && !voiceManager.isPaused(guild)) {
+      pendingPauses.put(guildId,
+          scheduler.schedule(() -> pauseIfEmpty(guild), pauseDelaySeconds, TimeUnit.SECONDS));
+      logger.debug("No listeners left in guild {}, pausing in {}s", guild.getName(), pauseDelaySeconds);
+    }
+  }
+
+  /**
+   * Stops tracking a guild (e.g. after the bot left it).
+   *
+   * @param guildId The guild ID
+   */
+  public synchronized void forget(long guildId) {
+    cancel(guildId);
+  }
+
+  private synchronized void pauseIfEmpty(Guild guild) {
+    long guildId = guild.getIdLong();
+    pendingPauses.remove(guildId);
+    AudioChannel channel = botChannel(guild);
+    if (channel == null || hasListeners(channel)) {
+      return;
+    }
+
+    try {
+      if (voiceManager.pausePlayback(guild) && evictDelaySeconds > 0) {
+        pendingEvictions.put(guildId,
+            scheduler.schedule(() -> evictIfPaused(guild), evictDelaySeconds, TimeUnit.SECONDS));
+      }
+    } catch (Exception e) {
+      logger.error("Failed to pause playback in guild: {}", guild.getName(), e);
+    }
+  }
+
+  private synchronized void evictIfPaused(Guild guild) {
+    pendingEvictions.remove(guild.getIdLong());
+    try {
+      voiceManager.evictPlayer(guild);
+    } catch (Exception e) {
+      logger.error("Failed to release idle player in guild: {}", guild.getName(), e);
+    }
+  }
+
+  private void cancel(long guildId) {
+    ScheduledFuture<?> pause = pendingPauses.remove(guildId);
+    if (pause != null) {
+      pause.cancel(false);
+    }
+    ScheduledFuture<?> eviction = pendingEvictions.remove(guildId);
+    if (eviction != null) {
+      eviction.cancel(false);
+    }
+  }
+
+  private static AudioChannel botChannel(Guild guild) {
+    GuildVoiceState voiceState = guild.getSelfMember().getVoiceState();
+    return voiceState != null ? voiceState.getChannel() : null;
+  }
+
+  private static boolean hasListeners(AudioChannel channel) {
+    return channel.getMembers().stream().anyMatch(member -> !member.getUser().isBot());
+  }
+}
@@ -0,0 +1,10 @@
+package managers;
+
+/**
+ * Total listening time of a single user in a guild.
+ *
+ * @param userId                The user ID
+ * @param totalListeningSeconds Total listening seconds
+ */
+public record ListenerStat(long userId, long totalListeningSeconds) {
+}
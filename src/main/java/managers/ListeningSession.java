@@ -0,0 +1,15 @@
+package managers;
+
+/**
+ * A closed listening session of a user in a guild.
+ *
+ * @param guildId   The guild ID
+ * @param userId    The user ID
+ * @param startTime Session start as epoch seconds
+ * @param endTime   Session end as epoch seconds
+ */
+record ListeningSession(long guildId, long userId, long startTime, long endTime) {
+  long durationSeconds() {
+    return endTime - startTime;
+  }
+}
@@ -0,0 +1,93 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of Opus frames with one writer and any number of readers.
+ * Every frame gets a sequence number and readers keep their own cursor, so
+ * they never coordinate with each other or with the writer. Each slot carries
+ * the sequence of the frame it holds; a reader checks it before and after
+ * copying the frame out, so a slot that is overwritten mid-copy is detected
+ * instead of being sent torn.
+ */
+class OpusFrameRing {
+  static final int MAX_FRAME_SIZE = StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize();
+  private static final long WRITING = -1;
+
+  private final int capacity;
+  private final int mask;
+  private final byte[][] frames;
+  private final int[] lengths;
+  private final AtomicLongArray stamps;
+  private volatile long latest = -1; // Sequence of the newest frame
+
+  /**
+   * Creates a ring.
+   *
+   * @param capacity Number of frames kept (a power of two)
+   */
+  OpusFrameRing(int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.frames = new byte[capacity][MAX_FRAME_SIZE];
+    this.lengths = new int[capacity];
+    this.stamps = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      stamps.set(i, WRITING);
+    }
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the sequence of the newest frame.
+   *
+   * @return Newest sequence, or -1 if nothing was written yet
+   */
+  long latest() {
+    return latest;
+  }
+
+  /**
+   * Appends a frame. Must only be called from the single writer thread.
+   *
+   * @param frame Frame provided by the audio player
+   */
+  void write(MutableAudioFrame frame) {
+    long sequence = latest + 1;
+    int slot = (int) (sequence & mask);
+    stamps.set(slot, WRITING);
+    VarHandle.storeStoreFence();
+    frame.getData(frames[slot], 0);
+    lengths[slot] = frame.getDataLength();
+    stamps.setRelease(slot, sequence);
+    latest = sequence;
+  }
+
+  /**
+   * Copies a frame out of the ring.
+   *
+   * @param sequence Sequence of the frame to read
+   * @param target   Buffer of at least {@link #MAX_FRAME_SIZE} bytes
+   * @return Frame length, or -1 if the frame is not in the ring (not written yet or already overwritten)
+   */
+  int read(long sequence, byte[] target) {
+    int slot = (int) (sequence & mask);
+    if (stamps.getAcquire(slot) != sequence) {
+      return -1;
+    }
+    int length = lengths[slot];
+    System.arraycopy(frames[slot], 0, target, 0, length);
+    VarHandle.loadLoadFence();
+    return stamps.get(slot) == sequence ? length : -1;
+  }
+}
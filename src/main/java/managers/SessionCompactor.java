@@ -0,0 +1,238 @@
+package managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background retention job for playback_sessions.
+ * Closed sessions older than the retention age are folded into
+ * playback_session_daily and then deleted in small batches. Each batch is a
+ * separate writer task, so other writes are queued in between and the writer
+ * is never held for long. Freed pages are handed back with incremental vacuum;
+ * the first run switches the database to that mode if it is not in it yet.
+ */
+class SessionCompactor {
+  private static final Logger logger = LoggerFactory.getLogger(SessionCompactor.class);
+  private static final long INITIAL_DELAY_MINUTES = 5;
+  private static final long INTERVAL_HOURS = 6;
+  private static final int BATCH_SIZE = 1000;
+  private static final long VACUUM_BATCH_PAGES = 2000;
+  private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+  private final DatabaseManager databaseManager;
+  private final long retentionSeconds;
+  private final ScheduledExecutorService executor;
+  private volatile CompactionReport lastReport;
+  private volatile boolean incrementalVacuum; // Set once the database is known to be in incremental mode
+
+  SessionCompactor(DatabaseManager databaseManager, int retentionDays) {
+    this.databaseManager = databaseManager;
+    this.retentionSeconds = retentionDays * StatsBucket.DAY_SECONDS;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "session-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Schedules periodic compaction runs.
+   */
+  void start() {
+    executor.scheduleWithFixedDelay(this::runSafely, INITIAL_DELAY_MINUTES * 60, INTERVAL_HOURS * 3600,
+        TimeUnit.SECONDS);
+    logger.info("Session compaction scheduled every {}h (retention {} days)", INTERVAL_HOURS,
+        retentionSeconds / StatsBucket.DAY_SECONDS);
+  }
+
+  /**
+   * Gets the report of the most recent run.
+   *
+   * @return Last compaction report, or null if no run has finished yet
+   */
+  CompactionReport getLastReport() {
+    return lastReport;
+  }
+
+  private void runSafely() {
+    try {
+      runOnce();
+    } catch (Exception e) {
+      logger.error("Error compacting playback sessions", e);
+    }
+  }
+
+  /**
+   * Runs one compaction pass.
+   *
+   * @return Report of the run
+   * @throws SQLException if the database cannot be read or written
+   */
+  CompactionReport runOnce() throws SQLException {
+    if (!incrementalVacuum) {
+      // incremental_vacuum is a no-op in any other mode, so switch before freeing pages
+      databaseManager.write(SessionCompactor::enableIncrementalVacuum);
+      incrementalVacuum = true;
+    }
+
+    long startedAt = System.currentTimeMillis();
+    DatabaseStats before = databaseManager.getDatabaseStats();
+    long cutoff = startedAt / 1000 - retentionSeconds;
+
+    long compacted = 0;
+    int batch;
+    do {
+      batch = databaseManager.writeTransaction(conn -> compactBatch(conn, cutoff));
+      compacted += batch;
+    } while (batch == BATCH_SIZE);
+
+    if (compacted > 0) {
+      long remaining;
+      do {
+        remaining = databaseManager.write(SessionCompactor::vacuumPages);
+      } while (remaining > 0);
+
+      databaseManager.write(conn -> {
+        try (Statement stmt = conn.createStatement()) {
+          // Checkpoint so the shrunken main file is written out and the WAL is reset
+          stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        }
+        return null;
+      });
+    }
+
+    DatabaseStats after = databaseManager.getDatabaseStats();
+    long durationMs = System.currentTimeMillis() - startedAt;
+    CompactionReport report = new CompactionReport(before, after, compacted, durationMs,
+        System.currentTimeMillis() / 1000);
+    lastReport = report;
+
+    logger.info("Compacted {} playback sessions in {} ms: size {} -> {} bytes, sessions {} -> {}, daily rows {} -> {}",
+        compacted, durationMs, before.sizeBytes(), after.sizeBytes(), before.sessionRows(), after.sessionRows(),
+        before.dailyRows(), after.dailyRows());
+    return report;
+  }
+
+  /**
+   * Folds and deletes one batch of expired closed sessions.
+   *
+   * @param conn   The writer connection, inside a transaction
+   * @param cutoff Sessions that ended before this epoch second are compacted
+   * @return Number of sessions compacted
+   * @throws SQLException if the batch fails
+   */
+  private static int compactBatch(Connection conn, long cutoff) throws SQLException {
+    String batchSql = "SELECT session_id FROM playback_sessions"
+        + " WHERE end_time IS NOT NULL AND end_time < ?"
+        + " ORDER BY end_time LIMIT ?";
+    String foldSql = "INSERT INTO playback_session_daily"
+        + " (guild_id, user_id, day_start, session_count, listening_seconds)"
+        + " SELECT guild_id, user_id, start_time - start_time % 86400, COUNT(*),"
+        + " SUM(COALESCE(duration_seconds, 0))"
+        + " FROM playback_sessions"
+        + " WHERE session_id IN (" + batchSql + ")"
+        + " GROUP BY guild_id, user_id, start_time - start_time % 86400"
+        + " ON CONFLICT(guild_id, user_id, day_start) DO UPDATE SET"
+        + " session_count = session_count + excluded.session_count,"
+        + " listening_seconds = listening_seconds + excluded.listening_seconds";
+    String deleteSql = "DELETE FROM playback_sessions WHERE session_id IN (" + batchSql + ")";
+
+    try (PreparedStatement fold = conn.prepareStatement(foldSql);
+        PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+      fold.setLong(1, cutoff);
+      fold.setInt(2, BATCH_SIZE);
+      fold.executeUpdate();
+
+      // Same subquery inside the same transaction, so it selects the same rows
+      delete.setLong(1, cutoff);
+      delete.setInt(2, BATCH_SIZE);
+      return delete.executeUpdate();
+    }
+  }
+
+  /**
+   * Switches the database to incremental auto-vacuum.
+   * Changing the mode on an existing database needs a one-time full VACUUM,
+   * which holds the writer for as long as it takes, so it runs here instead of
+   * on the startup path.
+   *
+   * @param conn The writer connection
+   * @return Always null
+   * @throws SQLException if the mode cannot be changed
+   */
+  private static Void enableIncrementalVacuum(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      if (queryLong(stmt, "PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+        return null;
+      }
+
+      long startedAt = System.currentTimeMillis();
+      long before = sizeBytes(stmt);
+      logger.info("Enabling incremental auto-vacuum (one-time VACUUM of {} bytes)", before);
+      stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+      stmt.execute("VACUUM");
+      logger.info("Enabled incremental auto-vacuum in {} ms: size {} -> {} bytes",
+          System.currentTimeMillis() - startedAt, before, sizeBytes(stmt));
+    }
+    return null;
+  }
+
+  private static long sizeBytes(Statement stmt) throws SQLException {
+    return queryLong(stmt, "PRAGMA page_count") * queryLong(stmt, "PRAGMA page_size");
+  }
+
+  private static long queryLong(Statement stmt, String sql) throws SQLException {
+    try (ResultSet rs = stmt.executeQuery(sql)) {
+      return rs.next() ? rs.getLong(1) : 0L;
+    }
+  }
+
+  /**
+   * Releases up to VACUUM_BATCH_PAGES free pages back to the file system.
+   * The JDBC driver steps the pragma once per call and each step frees a
+   * single page, so it is run once per page.
+   *
+   * @param conn The writer connection
+   * @return Free pages left after this batch
+   * @throws SQLException if the vacuum fails
+   */
+  private static long vacuumPages(Connection conn) throws SQLException {
+    long freePages;
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+      freePages = rs.next() ? rs.getLong(1) : 0L;
+    }
+
+    long pages = Math.min(freePages, VACUUM_BATCH_PAGES);
+    try (PreparedStatement stmt = conn.prepareStatement("PRAGMA incremental_vacuum")) {
+      for (long i = 0; i < pages; i++) {
+        stmt.execute();
+      }
+    }
+    return freePages - pages;
+  }
+
+  /**
+   * Stops scheduling runs and waits for a running pass to finish.
+   */
+  void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package managers;
+
+/**
+ * Stall counters of one guild's audio (or one shared broadcast).
+ *
+ * @param stalls        Number of stalls detected
+ * @param totalStallMs  Total time spent stalled in milliseconds
+ * @param lastStallMs   Length of the most recent finished stall in milliseconds
+ * @param underruns     Frames that were due while a track was playing but not ready
+ * @param stalled       Whether the audio is stalled right now
+ */
+public record StallStats(long stalls, long totalStallMs, long lastStallMs, long underruns, boolean stalled) {
+  public static final StallStats EMPTY = new StallStats(0, 0, 0, 0, false);
+}
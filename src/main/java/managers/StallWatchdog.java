@@ -0,0 +1,112 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects players that report a playing track but stop delivering frames.
+ * The send path reports every frame and every empty provide; once a playing
+ * track has produced nothing for the threshold, the stream is restarted
+ * through the scheduler. Only a restart counts as a stall; the watchdog then
+ * waits for frames to come back before it can trigger again, and further
+ * retries are left to the scheduler and the reconnect coordinator.
+ * Updated on the audio send thread only; counters are volatile for readers.
+ */
+class StallWatchdog {
+  private static final Logger logger = LoggerFactory.getLogger(StallWatchdog.class);
+
+  private final String name;
+  private final AudioPlayer player;
+  private final TrackScheduler scheduler;
+  private final int thresholdFrames;
+  private AudioTrack watchedTrack;
+  private int emptyFrames; // Consecutive empty provides of the watched track
+  private long stallStartNanos;
+  private volatile boolean stalled;
+  private volatile long stalls;
+  private volatile long totalStallMs;
+  private volatile long lastStallMs;
+  private volatile long underruns;
+
+  /**
+   * Creates a watchdog.
+   *
+   * @param name        Name used in logs (e.g. the guild ID)
+   * @param player      The player to watch
+   * @param scheduler   The scheduler that restarts the stream
+   * @param thresholdMs Time without frames before a stall is declared
+   */
+  StallWatchdog(String name, AudioPlayer player, TrackScheduler scheduler, long thresholdMs) {
+    this.name = name;
+    this.player = player;
+    this.scheduler = scheduler;
+    this.thresholdFrames = (int) Math.max(1, thresholdMs / StreamBroadcast.FRAME_INTERVAL_MS);
+  }
+
+  /**
+   * Called when the player provided a frame.
+   */
+  void onFrame() {
+    emptyFrames = 0;
+    if (stalled) {
+      logger.info("Audio recovered after a {} ms stall in {}", endStall(), name);
+    }
+  }
+
+  /**
+   * Called when the player had no frame.
+   */
+  void onEmpty() {
+    AudioTrack track = player.getPlayingTrack();
+    if (track == null || player.isPaused()) {
+      emptyFrames = 0; // Nothing is supposed to play
+      if (stalled && track == null) {
+        // Stopped while stalled, re-arm for whatever plays next
+        logger.info("Audio stopped after a {} ms stall in {}", endStall(), name);
+      }
+      return;
+    }
+    if (track != watchedTrack) {
+      watchedTrack = track; // A new track gets a full threshold to start up
+      emptyFrames = 0;
+    }
+
+    underruns++;
+    if (stalled || ++emptyFrames < thresholdFrames) {
+      return; // Below the threshold, or already restarted and waiting for frames
+    }
+    emptyFrames = 0;
+    if (!scheduler.onStall()) {
+      return; // Not a looped stream, or a restart is already under way
+    }
+    stalled = true;
+    stallStartNanos = System.nanoTime() - thresholdFrames * StreamBroadcast.FRAME_INTERVAL_MS * 1_000_000;
+    stalls++;
+    logger.warn("Audio stalled in {} ({} ms without frames), restarted stream", name,
+        thresholdFrames * StreamBroadcast.FRAME_INTERVAL_MS);
+  }
+
+  /**
+   * Ends the current stall and adds it to the counters.
+   *
+   * @return Length of the stall in milliseconds
+   */
+  private long endStall() {
+    stalled = false;
+    long duration = (System.nanoTime() - stallStartNanos) / 1_000_000;
+    lastStallMs = duration;
+    totalStallMs += duration;
+    return duration;
+  }
+
+  /**
+   * Gets the stall counters.
+   *
+   * @return Current StallStats
+   */
+  StallStats getStats() {
+    return new StallStats(stalls, totalStallMs, lastStallMs, underruns, stalled);
+  }
+}
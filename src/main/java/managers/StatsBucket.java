@@ -0,0 +1,56 @@
+package managers;
+
+import java.util.Map;
+
+/**
+ * Key of a statistics rollup row: a guild and the start of its time bucket.
+ *
+ * @param guildId     The guild ID
+ * @param bucketStart Bucket start as epoch seconds
+ */
+record StatsBucket(long guildId, long bucketStart) {
+  static final long HOUR_SECONDS = 3600;
+  static final long DAY_SECONDS = 86400;
+
+  /**
+   * Gets the hourly bucket containing a point in time.
+   *
+   * @param guildId     The guild ID
+   * @param epochSecond Time as epoch seconds
+   * @return The hourly bucket
+   */
+  static StatsBucket hourOf(long guildId, long epochSecond) {
+    return new StatsBucket(guildId, epochSecond - Math.floorMod(epochSecond, HOUR_SECONDS));
+  }
+
+  /**
+   * Adds playback time that ended at a given time, spread over the hours it
+   * was actually played in.
+   *
+   * @param buckets Hourly counters to add to
+   * @param guildId The guild ID
+   * @param endTime Playback end as epoch seconds
+   * @param seconds Seconds played
+   */
+  static void addPlayback(Map<StatsBucket, GuildStats> buckets, long guildId, long endTime, long seconds) {
+    long end = endTime;
+    long remaining = seconds;
+    while (remaining > 0) {
+      // Bucket holding the last second before end
+      StatsBucket bucket = hourOf(guildId, end - 1);
+      long inHour = Math.min(remaining, end - bucket.bucketStart());
+      buckets.merge(bucket, new GuildStats(0, inHour), GuildStats::plus);
+      remaining -= inHour;
+      end = bucket.bucketStart();
+    }
+  }
+
+  /**
+   * Gets the daily bucket this hourly bucket falls into.
+   *
+   * @return The daily bucket
+   */
+  StatsBucket toDay() {
+    return new StatsBucket(guildId, bucketStart - Math.floorMod(bucketStart, DAY_SECONDS));
+  }
+}
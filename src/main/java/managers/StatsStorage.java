@@ -0,0 +1,39 @@
+package managers;
+
+/**
+ * Write path for statistics events.
+ * Implementations must not block the caller on disk I/O, since events are
+ * recorded from JDA event threads and audio callbacks.
+ */
+public interface StatsStorage {
+  /**
+   * Records a single command usage.
+   *
+   * @param guildId     The guild ID
+   * @param commandName The command name
+   */
+  void recordCommandUsage(long guildId, String commandName);
+
+  /**
+   * Records music playback time for a guild that ended now.
+   *
+   * @param guildId The guild ID
+   * @param seconds Seconds played
+   */
+  void addGuildPlaybackTime(long guildId, long seconds);
+
+  /**
+   * Records a listening session that has ended.
+   *
+   * @param guildId   The guild ID
+   * @param userId    The user ID
+   * @param startTime Session start as epoch seconds
+   * @param endTime   Session end as epoch seconds
+   */
+  void recordListeningSession(long guildId, long userId, long startTime, long endTime);
+
+  /**
+   * Writes all recorded events through to the database.
+   */
+  void flush();
+}
@@ -0,0 +1,74 @@
+package managers;
+
+import java.util.Locale;
+
+/**
+ * Time windows that server statistics can be reported over.
+ * Buckets are aligned to UTC hours and days.
+ */
+public enum StatsWindow {
+  LAST_24_HOURS("24h", "24 giờ qua"),
+  LAST_7_DAYS("7d", "7 ngày qua"),
+  LAST_30_DAYS("30d", "30 ngày qua"),
+  ALL_TIME("all", "Toàn thời gian");
+
+  private final String key;
+  private final String label;
+
+  StatsWindow(String key, String label) {
+    this.key = key;
+    this.label = label;
+  }
+
+  /**
+   * Gets the short key used in command options.
+   *
+   * @return Window key (e.g. "24h")
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Gets the display label of the window.
+   *
+   * @return Window label
+   */
+  public String getLabel() {
+    return label;
+  }
+
+  /**
+   * Gets the start of the first bucket inside this window.
+   *
+   * @param now Current time as epoch seconds
+   * @return Window start as epoch seconds (0 for all time)
+   */
+  long getStart(long now) {
+    return switch (this) {
+      case LAST_24_HOURS -> now - now % StatsBucket.HOUR_SECONDS - 23 * StatsBucket.HOUR_SECONDS;
+      case LAST_7_DAYS -> now - now % StatsBucket.DAY_SECONDS - 6 * StatsBucket.DAY_SECONDS;
+      case LAST_30_DAYS -> now - now % StatsBucket.DAY_SECONDS - 29 * StatsBucket.DAY_SECONDS;
+      case ALL_TIME -> 0;
+    };
+  }
+
+  /**
+   * Looks up a window by its key.
+   *
+   * @param key Window key, case-insensitive
+   * @return The window, or null if the key is unknown
+   */
+  public static StatsWindow fromKey(String key) {
+    if (key == null) {
+      return null;
+    }
+    String normalized = key.trim().toLowerCase(Locale.ROOT);
+    for (StatsWindow window : values()) {
+      if (window.key.equals(normalized)) {
+        return window;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,251 @@
+package managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for statistics counters.
+ * Increments are merged in memory and flushed to the database in a single
+ * transaction, either periodically or once enough rows are pending.
+ * Every increment is also tagged with its UTC hour so the flush can keep the
+ * hourly, daily and lifetime rollups current.
+ * Every flushed batch gets a sequence number that is committed with it. A
+ * reader snapshots the uncommitted counters, together with the sequence of the
+ * batch each will be committed in, before its database read, and only adds the
+ * ones whose batch is newer than the sequence its read saw. Readers never wait
+ * for a commit, and each increment is still counted exactly once.
+ */
+class StatsWriteBehind {
+  private static final Logger logger = LoggerFactory.getLogger(StatsWriteBehind.class);
+  private static final long FLUSH_INTERVAL_MS = 5000;
+  private static final int MAX_PENDING_ROWS = 500;
+
+  private final DatabaseManager databaseManager;
+  // (guildId, commandName) -> pending usage count
+  private final Map<CommandKey, Long> pendingCommandUsage = new ConcurrentHashMap<>();
+  // (guildId, hour) -> pending command and playback counters
+  private final Map<StatsBucket, GuildStats> pendingBuckets = new ConcurrentHashMap<>();
+  // Batch drained by the running flush whose commit has not returned yet
+  private volatile Batch inFlight = Batch.EMPTY;
+  // Sequence the next drained batch gets; guarded by drainLock
+  private long nextSeq;
+  // Held briefly to drain or retire a batch, and to snapshot the uncommitted counters
+  private final ReadWriteLock drainLock = new ReentrantReadWriteLock();
+  private final ScheduledExecutorService flushExecutor;
+  private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+  /**
+   * Key of a per-command usage counter.
+   *
+   * @param guildId     The guild ID
+   * @param commandName The command name
+   */
+  record CommandKey(long guildId, String commandName) {
+  }
+
+  /**
+   * A drained batch of hourly counters and the flush sequence it is committed with.
+   */
+  private record Batch(long seq, Map<StatsBucket, GuildStats> buckets) {
+    private static final Batch EMPTY = new Batch(0, Map.of());
+  }
+
+  /**
+   * Uncommitted counters of a guild, split by the flush sequence that will commit them.
+   *
+   * @param inFlight    Counters of the batch being committed
+   * @param inFlightSeq Sequence of that batch (0 if none)
+   * @param pending     Counters not drained yet
+   * @param pendingSeq  Sequence of the first flush that can commit them
+   */
+  record PendingStats(GuildStats inFlight, long inFlightSeq, GuildStats pending, long pendingSeq) {
+    /**
+     * Gets the counters a database read is still missing.
+     * A batch that failed to commit is merged into a later one, so a committed
+     * sequence at or past a batch's sequence means its counters are stored.
+     *
+     * @param flushedSeq Last flush sequence committed as of the read
+     * @return Counters not included in the read
+     */
+    GuildStats notIn(long flushedSeq) {
+      GuildStats total = GuildStats.EMPTY;
+      if (inFlightSeq > flushedSeq) {
+        total = total.plus(inFlight);
+      }
+      if (pendingSeq > flushedSeq) {
+        total = total.plus(pending);
+      }
+      return total;
+    }
+  }
+
+  StatsWriteBehind(DatabaseManager databaseManager) {
+    this.databaseManager = databaseManager;
+    this.nextSeq = databaseManager.getFlushedStatsSeq() + 1;
+    this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "stats-write-behind");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flushExecutor.scheduleWithFixedDelay(this::flushSafely, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues a single command usage increment.
+   *
+   * @param guildId     The guild ID
+   * @param commandName The command name
+   */
+  void recordCommandUsage(long guildId, String commandName) {
+    pendingCommandUsage.merge(new CommandKey(guildId, commandName), 1L, Long::sum);
+    pendingBuckets.merge(StatsBucket.hourOf(guildId, System.currentTimeMillis() / 1000),
+        new GuildStats(1, 0), GuildStats::plus);
+    requestFlushIfFull();
+  }
+
+  /**
+   * Queues playback seconds for a guild that just finished playing.
+   * The time is spread over the hours it was actually played in.
+   *
+   * @param guildId The guild ID
+   * @param seconds Seconds to add
+   */
+  void addGuildPlaybackTime(long guildId, long seconds) {
+    StatsBucket.addPlayback(pendingBuckets, guildId, System.currentTimeMillis() / 1000, seconds);
+    requestFlushIfFull();
+  }
+
+  /**
+   * Snapshots the counters of a guild that are not committed yet, pending or in flight.
+   * Take the snapshot before the database read it is combined with, using {@link PendingStats#notIn}.
+   *
+   * @param guildId The guild ID
+   * @param since   Only count buckets starting at or after this epoch second
+   * @return Uncommitted counters
+   */
+  PendingStats getPendingStats(long guildId, long since) {
+    drainLock.readLock().lock();
+    try {
+      Batch batch = inFlight;
+      return new PendingStats(sum(batch.buckets(), guildId, since), batch.seq(),
+          sum(pendingBuckets, guildId, since), nextSeq);
+    } finally {
+      drainLock.readLock().unlock();
+    }
+  }
+
+  private static GuildStats sum(Map<StatsBucket, GuildStats> buckets, long guildId, long since) {
+    GuildStats total = GuildStats.EMPTY;
+    for (Map.Entry<StatsBucket, GuildStats> entry : buckets.entrySet()) {
+      StatsBucket bucket = entry.getKey();
+      if (bucket.guildId() == guildId && bucket.bucketStart() >= since) {
+        total = total.plus(entry.getValue());
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Gets the number of rows waiting to be flushed.
+   *
+   * @return Pending row count
+   */
+  int getPendingRows() {
+    return pendingCommandUsage.size() + pendingBuckets.size();
+  }
+
+  /**
+   * Triggers an early flush once the pending row threshold is reached.
+   */
+  private void requestFlushIfFull() {
+    if (getPendingRows() >= MAX_PENDING_ROWS && flushRequested.compareAndSet(false, true)) {
+      flushExecutor.execute(() -> {
+        flushRequested.set(false);
+        flushSafely();
+      });
+    }
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (Exception e) {
+      logger.error("Error flushing statistics", e);
+    }
+  }
+
+  /**
+   * Drains all pending increments and writes them in one transaction.
+   * If the write fails the increments are merged back so they are not lost.
+   */
+  synchronized void flush() {
+    Map<CommandKey, Long> commandUsage;
+    Batch batch;
+    drainLock.writeLock().lock();
+    try {
+      commandUsage = drain(pendingCommandUsage);
+      Map<StatsBucket, GuildStats> buckets = drain(pendingBuckets);
+      if (commandUsage.isEmpty() && buckets.isEmpty()) {
+        return;
+      }
+      batch = new Batch(nextSeq++, buckets);
+      inFlight = batch;
+    } finally {
+      drainLock.writeLock().unlock();
+    }
+
+    // Readers keep going during the commit, the sequence tells them whether it is in their read
+    boolean committed = databaseManager.writeStatsBatch(commandUsage, batch.buckets(), batch.seq());
+    drainLock.writeLock().lock();
+    try {
+      if (committed) {
+        logger.debug("Flushed {} command and {} hourly stat rows", commandUsage.size(), batch.buckets().size());
+      } else {
+        // Merged into the next batch, whose higher sequence covers these counters too
+        commandUsage.forEach((key, count) -> pendingCommandUsage.merge(key, count, Long::sum));
+        batch.buckets().forEach((key, stats) -> pendingBuckets.merge(key, stats, GuildStats::plus));
+      }
+      inFlight = Batch.EMPTY;
+    } finally {
+      drainLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Flushes remaining increments and stops the background thread.
+   */
+  void shutdown() {
+    flushExecutor.shutdown();
+    try {
+      if (!flushExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+        flushExecutor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      flushExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private static <K, V> Map<K, V> drain(Map<K, V> pending) {
+    Map<K, V> drained = new HashMap<>();
+    for (K key : pending.keySet()) {
+      V value = pending.remove(key);
+      if (value != null) {
+        drained.put(key, value);
+      }
+    }
+    return drained;
+  }
+}
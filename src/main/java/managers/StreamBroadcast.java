@@ -0,0 +1,151 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One upstream stream shared by every guild that plays it at the same volume.
+ * A single AudioPlayer loads, decodes and encodes the stream, and a pump task
+ * moves its Opus frames into a ring every 20 ms. Guilds read the ring through
+ * their own BroadcastSendHandler.
+ */
+class StreamBroadcast {
+  private static final Logger logger = LoggerFactory.getLogger(StreamBroadcast.class);
+  private static final int RING_FRAMES = 64; // ~1.3 s of audio
+  static final long FRAME_INTERVAL_MS = 20;
+
+  /**
+   * Broadcasts are shared per stream URL and volume, since the volume is applied before encoding.
+   */
+  record Key(String streamUrl, int volume) {
+  }
+
+  private final Key key;
+  private final AudioPlayer player;
+  private final TrackScheduler scheduler;
+  private final StallWatchdog watchdog;
+  private final OpusFrameRing ring = new OpusFrameRing(RING_FRAMES);
+  private final MutableAudioFrame frame = new MutableAudioFrame(); // Pump thread only
+  private final Set<Long> subscribers = ConcurrentHashMap.newKeySet();
+  private final CompletableFuture<Void> ready = new CompletableFuture<>();
+  private ScheduledFuture<?> pump;
+
+  StreamBroadcast(Key key, AudioPlayerManager playerManager, long stallThresholdMs) {
+    this.key = key;
+    this.player = playerManager.createPlayer();
+    this.scheduler = new TrackScheduler(player);
+    this.watchdog = new StallWatchdog("broadcast " + key.streamUrl() + " @" + key.volume() + "%", player, scheduler,
+        stallThresholdMs);
+    player.addListener(scheduler);
+    frame.setBuffer(ByteBuffer.allocate(OpusFrameRing.MAX_FRAME_SIZE));
+  }
+
+  /**
+   * Loads the stream and starts pumping frames.
+   *
+   * @param trackCache   The cache to load the stream through
+   * @param pumpExecutor Executor that runs the frame pump
+   */
+  void start(StreamTrackCache trackCache, ScheduledExecutorService pumpExecutor) {
+    player.setVolume(key.volume());
+    scheduler.setStreamUrl(key.streamUrl()); // Reload when the stream drops
+    pump = pumpExecutor.scheduleAtFixedRate(this::pumpFrame, 0, FRAME_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+    // Fail fast on a stream that is known to be down instead of probing it again
+    if (VoiceManager.getInstance().getReconnectCoordinator().isCircuitOpen(key.streamUrl())) {
+      ready.completeExceptionally(new IllegalStateException("Stream is down: " + key.streamUrl()));
+      return;
+    }
+
+    trackCache.load(key.streamUrl(), new AudioLoadResultHandler() {
+      @Override
+      public void trackLoaded(AudioTrack track) {
+        player.startTrack(track, false);
+        logger.info("Started broadcast of {} at {}% volume", key.streamUrl(), key.volume());
+        ready.complete(null);
+      }
+
+      @Override
+      public void playlistLoaded(AudioPlaylist playlist) {
+        AudioTrack firstTrack = playlist.getSelectedTrack();
+        trackLoaded(firstTrack != null ? firstTrack : playlist.getTracks().get(0));
+      }
+
+      @Override
+      public void noMatches() {
+        ready.completeExceptionally(new IllegalStateException("No audio found at " + key.streamUrl()));
+      }
+
+      @Override
+      public void loadFailed(FriendlyException exception) {
+        ready.completeExceptionally(exception);
+      }
+    });
+  }
+
+  private void pumpFrame() {
+    try {
+      if (player.provide(frame)) {
+        ring.write(frame);
+        scheduler.onFrameSent();
+        watchdog.onFrame();
+      } else {
+        watchdog.onEmpty();
+      }
+    } catch (Exception e) {
+      logger.error("Error pumping broadcast frame for {}", key.streamUrl(), e);
+    }
+  }
+
+  /**
+   * Stops the pump and releases the player.
+   */
+  void stop() {
+    if (pump != null) {
+      pump.cancel(false);
+    }
+    scheduler.stopLooping();
+    player.destroy();
+    logger.info("Stopped broadcast of {} at {}% volume", key.streamUrl(), key.volume());
+  }
+
+  Key getKey() {
+    return key;
+  }
+
+  OpusFrameRing getRing() {
+    return ring;
+  }
+
+  StallStats getStallStats() {
+    return watchdog.getStats();
+  }
+
+  Set<Long> getSubscribers() {
+    return subscribers;
+  }
+
+  /**
+   * Gets a future that completes once the stream is playing, or fails if it could not be loaded.
+   *
+   * @return Future for the stream load
+   */
+  CompletableFuture<Void> getReady() {
+    return ready;
+  }
+}
@@ -0,0 +1,59 @@
+package managers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the audible gaps left when a looped stream had to be restarted.
+ * A gap runs from the last frame sent before the stream ended or stalled to
+ * the first frame sent from its replacement.
+ */
+public class StreamGapMetrics {
+  private final LongAdder gaps = new LongAdder();
+  private final LongAdder totalGapMs = new LongAdder();
+  private final AtomicLong maxGapMs = new AtomicLong();
+  private volatile long lastGapMs;
+
+  void record(long gapMs) {
+    gaps.increment();
+    totalGapMs.add(gapMs);
+    maxGapMs.accumulateAndGet(gapMs, Math::max);
+    lastGapMs = gapMs;
+  }
+
+  /**
+   * Gets the number of stream restarts that were measured.
+   *
+   * @return Gap count
+   */
+  public long getGapCount() {
+    return gaps.sum();
+  }
+
+  /**
+   * Gets the total length of all gaps.
+   *
+   * @return Total gap length in milliseconds
+   */
+  public long getTotalGapMs() {
+    return totalGapMs.sum();
+  }
+
+  /**
+   * Gets the longest gap seen.
+   *
+   * @return Longest gap in milliseconds
+   */
+  public long getMaxGapMs() {
+    return maxGapMs.get();
+  }
+
+  /**
+   * Gets the most recent gap.
+   *
+   * @return Last gap in milliseconds (0 if none)
+   */
+  public long getLastGapMs() {
+    return lastGapMs;
+  }
+}
@@ -0,0 +1,192 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads looped streams on behalf of every scheduler that lost its stream.
+ * Per stream URL there is at most one probe in flight; schedulers waiting for
+ * the URL are queued behind it. Failed probes are retried with exponential
+ * backoff and jitter, and after repeated failures the URL's circuit opens:
+ * nothing but the coordinator's own slow probe touches the URL until it
+ * answers again. A successful probe hands clones of its track to the waiting
+ * schedulers, staggered so they do not reconnect all at once.
+ */
+public class StreamReconnectCoordinator {
+  private static final Logger logger = LoggerFactory.getLogger(StreamReconnectCoordinator.class);
+  private static final long BASE_BACKOFF_MS = 1000;
+  private static final long MAX_BACKOFF_MS = 60_000;
+  private static final int FAILURES_TO_OPEN = 3;
+  private static final long RESUME_STAGGER_MS = 25;
+
+  private final StreamTrackCache trackCache;
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "stream-reconnect");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Map<String, UrlState> states = new ConcurrentHashMap<>();
+
+  /**
+   * Reconnect state of one stream URL. Guarded by its own monitor.
+   */
+  private static final class UrlState {
+    private final String url;
+    private final Set<TrackScheduler> waiters = new LinkedHashSet<>();
+    private boolean probing; // A probe is running or scheduled
+    private int failures; // Consecutive failed probes
+
+    private UrlState(String url) {
+      this.url = url;
+    }
+
+    private boolean isOpen() {
+      return failures >= FAILURES_TO_OPEN;
+    }
+  }
+
+  StreamReconnectCoordinator(StreamTrackCache trackCache) {
+    this.trackCache = trackCache;
+  }
+
+  /**
+   * Queues a scheduler for a fresh track of a stream URL.
+   * The scheduler's {@link TrackScheduler#onStreamAvailable(String, AudioTrack)} is called once the URL loads.
+   *
+   * @param url       The stream URL
+   * @param scheduler The scheduler that lost the stream
+   */
+  void requestTrack(String url, TrackScheduler scheduler) {
+    UrlState state = states.computeIfAbsent(url, UrlState::new);
+    synchronized (state) {
+      state.waiters.add(scheduler);
+      if (!state.probing) {
+        state.probing = true;
+        executor.execute(() -> probe(state));
+      }
+    }
+  }
+
+  /**
+   * Removes a scheduler from the queue of a stream URL (e.g. after it stopped looping).
+   *
+   * @param url       The stream URL
+   * @param scheduler The scheduler
+   */
+  void cancel(String url, TrackScheduler scheduler) {
+    UrlState state = states.get(url);
+    if (state != null) {
+      synchronized (state) {
+        state.waiters.remove(scheduler);
+      }
+    }
+  }
+
+  /**
+   * Checks if a stream URL is currently considered down.
+   *
+   * @param url The stream URL
+   * @return true if the URL's circuit is open
+   */
+  public boolean isCircuitOpen(String url) {
+    UrlState state = states.get(url);
+    if (state == null) {
+      return false;
+    }
+    synchronized (state) {
+      return state.isOpen();
+    }
+  }
+
+  private void probe(UrlState state) {
+    synchronized (state) {
+      if (state.waiters.isEmpty()) {
+        state.probing = false; // Everyone stopped waiting
+        return;
+      }
+    }
+
+    // The stream dropped, so the cached track is suspect; a successful probe caches a fresh one
+    trackCache.invalidate(state.url);
+    trackCache.load(state.url, new AudioLoadResultHandler() {
+      @Override
+      public void trackLoaded(AudioTrack track) {
+        onProbeSucceeded(state, track);
+      }
+
+      @Override
+      public void playlistLoaded(AudioPlaylist playlist) {
+        AudioTrack firstTrack = playlist.getSelectedTrack();
+        if (firstTrack == null && !playlist.getTracks().isEmpty()) {
+          firstTrack = playlist.getTracks().get(0);
+        }
+        if (firstTrack != null) {
+          onProbeSucceeded(state, firstTrack);
+        } else {
+          onProbeFailed(state, "empty playlist");
+        }
+      }
+
+      @Override
+      public void noMatches() {
+        onProbeFailed(state, "no matches");
+      }
+
+      @Override
+      public void loadFailed(FriendlyException exception) {
+        onProbeFailed(state, exception.getMessage());
+      }
+    });
+  }
+
+  private void onProbeSucceeded(UrlState state, AudioTrack track) {
+    List<TrackScheduler> resumed;
+    synchronized (state) {
+      if (state.isOpen()) {
+        logger.info("Stream is back after {} failed probes, closing circuit: {}", state.failures, state.url);
+      }
+      state.failures = 0;
+      state.probing = false;
+      resumed = new ArrayList<>(state.waiters);
+      state.waiters.clear();
+    }
+
+    // Spread the reconnects out instead of hitting the upstream with all of them at once
+    for (int i = 0; i < resumed.size(); i++) {
+      TrackScheduler scheduler = resumed.get(i);
+      AudioTrack clone = track.makeClone();
+      executor.schedule(() -> scheduler.onStreamAvailable(state.url, clone), i * RESUME_STAGGER_MS,
+          TimeUnit.MILLISECONDS);
+    }
+    if (!resumed.isEmpty()) {
+      logger.info("Stream reloaded, resuming {} player(s): {}", resumed.size(), state.url);
+    }
+  }
+
+  private void onProbeFailed(UrlState state, String reason) {
+    long delay;
+    synchronized (state) {
+      state.failures++;
+      delay = Backoff.jittered(BASE_BACKOFF_MS, MAX_BACKOFF_MS, state.failures);
+      if (state.failures == FAILURES_TO_OPEN) {
+        logger.warn("Stream failed {} probes in a row, opening circuit: {}", state.failures, state.url);
+      }
+    }
+    logger.warn("Failed to reload stream ({}), next probe in {} ms: {}", reason, delay, state.url);
+    executor.schedule(() -> probe(state), delay, TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,199 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of resolved stream tracks in front of the player manager.
+ * Loading a URL follows its redirects and probes the container; the resulting
+ * track carries both, so a clone of it starts playing without repeating that
+ * round trip. Entries expire after a TTL and are dropped as soon as the stream
+ * fails. Concurrent misses for the same URL share a single load; a load that
+ * was in flight when its URL was invalidated still answers its callers but is
+ * not cached, and later misses start a fresh load.
+ * Handlers always receive a clone, never the cached track itself; playlists
+ * are reduced to their selected (or first) track.
+ */
+public class StreamTrackCache {
+  private static final Logger logger = LoggerFactory.getLogger(StreamTrackCache.class);
+
+  private final AudioPlayerManager playerManager;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String, Load> pending = new HashMap<>(); // Guarded by itself
+  private final Map<String, Long> generations = new HashMap<>(); // Guarded by pending, bumped on invalidate
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private volatile long ttlNanos = TimeUnit.MINUTES.toNanos(10);
+
+  private record Entry(AudioTrack track, long loadedAtNanos) {
+  }
+
+  /**
+   * A load in flight and the handlers waiting for it.
+   */
+  private static final class Load {
+    private final long generation;
+    private final List<AudioLoadResultHandler> waiting = new ArrayList<>(); // Guarded by pending
+
+    private Load(long generation) {
+      this.generation = generation;
+    }
+  }
+
+  StreamTrackCache(AudioPlayerManager playerManager) {
+    this.playerManager = playerManager;
+  }
+
+  /**
+   * Sets how long a resolved track is reused.
+   *
+   * @param ttlSeconds TTL in seconds, 0 disables the cache
+   */
+  public void setTtlSeconds(long ttlSeconds) {
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    if (ttlSeconds == 0) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Loads a track, from the cache if a fresh entry exists.
+   * On a hit the handler is called right away on the calling thread.
+   *
+   * @param url     The stream URL
+   * @param handler Receives a clone of the track, or the failure
+   */
+  public void load(String url, AudioLoadResultHandler handler) {
+    Entry entry = entries.get(url);
+    if (entry != null && System.nanoTime() - entry.loadedAtNanos() < ttlNanos) {
+      hits.incrementAndGet();
+      handler.trackLoaded(entry.track().makeClone());
+      return;
+    }
+
+    misses.incrementAndGet();
+    Load load;
+    synchronized (pending) {
+      load = pending.get(url);
+      if (load != null) {
+        load.waiting.add(handler); // Join the load already in flight
+        return;
+      }
+      load = new Load(generations.getOrDefault(url, 0L));
+      load.waiting.add(handler);
+      pending.put(url, load);
+    }
+
+    playerManager.loadItem(url, new AudioLoadResultHandler() {
+      @Override
+      public void trackLoaded(AudioTrack track) {
+        onLoaded(url, load, track);
+      }
+
+      @Override
+      public void playlistLoaded(AudioPlaylist playlist) {
+        AudioTrack firstTrack = playlist.getSelectedTrack();
+        if (firstTrack == null && !playlist.getTracks().isEmpty()) {
+          firstTrack = playlist.getTracks().get(0);
+        }
+        if (firstTrack != null) {
+          onLoaded(url, load, firstTrack);
+        } else {
+          noMatches();
+        }
+      }
+
+      @Override
+      public void noMatches() {
+        for (AudioLoadResultHandler waiting : finish(url, load, null)) {
+          waiting.noMatches();
+        }
+      }
+
+      @Override
+      public void loadFailed(FriendlyException exception) {
+        for (AudioLoadResultHandler waiting : finish(url, load, null)) {
+          waiting.loadFailed(exception);
+        }
+      }
+    });
+  }
+
+  /**
+   * Drops the cached track of a URL, e.g. after its stream failed.
+   * A load already in flight may resolve the failed stream, so it is detached:
+   * its callers still get its result, but it is not cached and later loads
+   * do not join it.
+   *
+   * @param url The stream URL
+   */
+  public void invalidate(String url) {
+    synchronized (pending) {
+      generations.merge(url, 1L, Long::sum);
+      pending.remove(url);
+      if (entries.remove(url) != null) {
+        logger.debug("Invalidated cached track for {}", url);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of loads served from a fresh cache entry.
+   *
+   * @return Cache hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Gets the number of loads that had to resolve the URL or join a pending resolve.
+   *
+   * @return Cache misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  private void onLoaded(String url, Load load, AudioTrack track) {
+    for (AudioLoadResultHandler waiting : finish(url, load, track)) {
+      waiting.trackLoaded(track.makeClone());
+    }
+  }
+
+  /**
+   * Completes a load and takes its waiting handlers.
+   * The cache entry is only touched if the URL was not invalidated since the load started.
+   *
+   * @param url   The stream URL
+   * @param load  The finished load
+   * @param track The resolved track, or null if the load failed
+   * @return Handlers waiting for the load
+   */
+  private List<AudioLoadResultHandler> finish(String url, Load load, AudioTrack track) {
+    synchronized (pending) {
+      pending.remove(url, load);
+      if (load.generation == generations.getOrDefault(url, 0L)) {
+        if (track != null && ttlNanos > 0) {
+          entries.put(url, new Entry(track, System.nanoTime()));
+        } else if (track == null) {
+          entries.remove(url);
+        }
+      }
+      return load.waiting;
+    }
+  }
+}
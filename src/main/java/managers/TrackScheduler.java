@@ -10,23 +10,22 @@ import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 import net.dv8tion.jda.api.entities.Guild;
 
 /**
  * Scheduler for audio tracks that handles looping and track end events.
+ * A looped stream that ends or stalls is restarted from the stream track cache,
+ * so a healthy URL is not probed again for every restart.
  */
 public class TrackScheduler extends AudioEventAdapter {
   private static final Logger logger = LoggerFactory.getLogger(TrackScheduler.class);
-  private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
   private final AudioPlayer player;
-  private String streamUrl;
-  private boolean shouldLoop;
+  private volatile String streamUrl; // Written by event threads, read by lavaplayer, send and reconnect threads
+  private volatile boolean shouldLoop;
   private Guild guild; // Guild for tracking
   private long trackStartTime; // Track start time for statistics
+  private volatile boolean restarting; // The looped stream is being replaced, a gap is open
+  private long lastFrameNanos; // Only accessed on the audio send thread
 
   public TrackScheduler(AudioPlayer player) {
     this.player = player;
@@ -52,7 +51,7 @@ public class TrackScheduler extends AudioEventAdapter {
     if (guild != null && trackStartTime > 0) {
       long duration = (System.currentTimeMillis() / 1000) - trackStartTime;
       if (duration > 0) {
-        managers.DatabaseManager.getInstance().addGuildPlaybackTime(guild.getId(), duration);
+        managers.DatabaseManager.getInstance().getStatsStorage().addGuildPlaybackTime(guild.getIdLong(), duration);
       }
       trackStartTime = 0;
     }
@@ -60,36 +59,124 @@ public class TrackScheduler extends AudioEventAdapter {
     // If track ended naturally and we should loop, restart it
     if (endReason.mayStartNext && shouldLoop && streamUrl != null) {
       logger.info("Track ended, restarting stream: {}", streamUrl);
-      // Reload the stream
-      VoiceManager.getInstance().getPlayerManager().loadItemOrdered(this.player, streamUrl,
-          new AudioLoadResultHandler() {
-            @Override
-            public void trackLoaded(AudioTrack newTrack) {
-              TrackScheduler.this.player.startTrack(newTrack.makeClone(), false);
-            }
-
-            @Override
-            public void playlistLoaded(AudioPlaylist playlist) {
-              // Should not happen for a stream URL
-            }
-
-            @Override
-            public void noMatches() {
-              logger.warn("Could not reload stream: {}", streamUrl);
-            }
-
-            @Override
-            public void loadFailed(FriendlyException exception) {
-              logger.error("Failed to reload stream: {}", streamUrl, exception);
-              // Retry after a delay using scheduled executor
-              scheduler.schedule(() -> {
-                if (shouldLoop && streamUrl != null) {
-                  VoiceManager.getInstance().getPlayerManager().loadItemOrdered(TrackScheduler.this.player, streamUrl,
-                      this);
-                }
-              }, 5, TimeUnit.SECONDS);
-            }
-          });
+      restartStream();
+    }
+  }
+
+  @Override
+  public void onTrackException(AudioPlayer eventPlayer, AudioTrack track, FriendlyException exception) {
+    // Don't hand out clones of a stream that just failed
+    String url = streamUrl;
+    if (url != null) {
+      VoiceManager.getInstance().getTrackCache().invalidate(url);
+    }
+  }
+
+  @Override
+  public void onTrackStuck(AudioPlayer eventPlayer, AudioTrack track, long thresholdMs) {
+    // A stalled stream is replaced right away instead of waiting for it to fail
+    if (shouldLoop && streamUrl != null) {
+      logger.warn("Stream stalled for {} ms, restarting: {}", thresholdMs, streamUrl);
+      restartStream();
+    }
+  }
+
+  /**
+   * Restarts a looped stream whose player stopped delivering frames without ending the track.
+   * Called by the stall watchdog; does nothing while a restart (e.g. after onTrackStuck) is under way.
+   *
+   * @return true if a restart was started
+   */
+  boolean onStall() {
+    if (!shouldLoop || streamUrl == null || restarting) {
+      return false;
+    }
+    restartStream();
+    return true;
+  }
+
+  /**
+   * Replaces the looped stream with a fresh track from the cache, or through the reconnect coordinator.
+   */
+  private void restartStream() {
+    restarting = true;
+    startStream();
+  }
+
+  /**
+   * Notes that a frame was sent. Called by the send handler on the audio send thread;
+   * closes the gap opened by a stream restart.
+   */
+  void onFrameSent() {
+    long now = System.nanoTime();
+    if (restarting) {
+      restarting = false;
+      if (lastFrameNanos != 0) {
+        long gapMs = (now - lastFrameNanos) / 1_000_000;
+        VoiceManager.getInstance().getStreamGapMetrics().record(gapMs);
+        logger.info("Stream gap of {} ms while restarting: {}", gapMs, streamUrl);
+      }
+    }
+    lastFrameNanos = now;
+  }
+
+  /**
+   * Starts the looped stream, reusing a cached track of its URL when there is one.
+   * Falls back to the reconnect coordinator if the URL cannot be loaded, and goes
+   * straight to it while the URL's circuit is open.
+   */
+  public void startStream() {
+    String url = streamUrl;
+    if (url == null) {
+      return;
+    }
+    if (VoiceManager.getInstance().getReconnectCoordinator().isCircuitOpen(url)) {
+      reloadStream();
+      return;
+    }
+    VoiceManager.getInstance().getTrackCache().load(url, new AudioLoadResultHandler() {
+      @Override
+      public void trackLoaded(AudioTrack track) {
+        onStreamAvailable(url, track);
+      }
+
+      @Override
+      public void playlistLoaded(AudioPlaylist playlist) {
+        // Not reached, the cache reduces playlists to a track
+      }
+
+      @Override
+      public void noMatches() {
+        reloadStream();
+      }
+
+      @Override
+      public void loadFailed(FriendlyException exception) {
+        reloadStream();
+      }
+    });
+  }
+
+  /**
+   * Asks the reconnect coordinator for a fresh track of the looped stream.
+   * The track is started once the stream URL answers again.
+   */
+  public void reloadStream() {
+    String url = streamUrl;
+    if (url != null) {
+      VoiceManager.getInstance().getReconnectCoordinator().requestTrack(url, this);
+    }
+  }
+
+  /**
+   * Starts a reloaded stream track handed over by the reconnect coordinator.
+   *
+   * @param url   The stream URL the track was loaded from
+   * @param track The track to start
+   */
+  void onStreamAvailable(String url, AudioTrack track) {
+    if (shouldLoop && url.equals(streamUrl)) {
+      player.startTrack(track, false);
     }
   }
 
@@ -107,8 +194,12 @@ public class TrackScheduler extends AudioEventAdapter {
    * Stops looping.
    */
   public void stopLooping() {
+    if (streamUrl != null) {
+      VoiceManager.getInstance().getReconnectCoordinator().cancel(streamUrl, this);
+    }
     this.shouldLoop = false;
     this.streamUrl = null;
+    this.restarting = false;
   }
 
   /**
@@ -12,8 +12,14 @@ import net.dv8tion.jda.api.managers.AudioManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Manages voice connections and audio playback for the bot.
@@ -21,26 +27,62 @@ import java.util.Map;
 public class VoiceManager {
   private static final Logger logger = LoggerFactory.getLogger(VoiceManager.class);
   private static VoiceManager instance;
+  private static final long TRACK_STALL_THRESHOLD_MS = 3000;
   private final AudioPlayerManager playerManager;
   private final Map<Long, AudioPlayer> players;
   private final Map<Long, GuildAudioManager> guildAudioManagers;
   // Store voice channel info for reconnection
   private final Map<Long, Long> guildVoiceChannels; // guildId -> voiceChannelId
+  private final Map<Long, Long> guildVoiceBots = new ConcurrentHashMap<>(); // guildId -> self user ID of the bot in it
   private final Map<Long, AudioTrack> guildPlayingTracks; // guildId -> track (for resume)
   // Track playback start time per guild for statistics
   private final Map<Long, Long> guildPlaybackStartTime; // guildId -> startTimestamp
+  // Broadcast mode: guilds playing the same stream at the same volume share one player
+  private volatile boolean broadcastEnabled;
+  private final Map<StreamBroadcast.Key, StreamBroadcast> broadcasts = new ConcurrentHashMap<>();
+  private final Map<Long, BroadcastSendHandler> broadcastHandlers = new ConcurrentHashMap<>(); // guildId -> handler
+  private final ScheduledExecutorService broadcastPump = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "audio-broadcast");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // Playback paused while the bot's channel has no listeners
+  private final Map<Long, PausedPlayback> pausedPlayback = new ConcurrentHashMap<>(); // guildId -> playback
+  private final ListenerPresenceTracker presenceTracker = new ListenerPresenceTracker(this);
+  private final StreamGapMetrics streamGapMetrics = new StreamGapMetrics();
+  private final StreamTrackCache trackCache;
+  private final StreamReconnectCoordinator reconnectCoordinator;
+  private volatile long stallThresholdMs = 5000;
+  private final Map<Long, VoiceSession> voiceSessions = new ConcurrentHashMap<>(); // guildId -> last stored session
+  private final Set<Long> restoredSessions = ConcurrentHashMap.newKeySet(); // Loaded at startup, not rejoined yet
+  private final VoiceReconnectScheduler reconnectScheduler = new VoiceReconnectScheduler(this);
+
+  /**
+   * What a guild was playing when it was paused, so it can be restarted on resume.
+   * Exactly one of streamUrl and track is set.
+   */
+  private record PausedPlayback(String streamUrl, AudioTrack track, int volume, boolean broadcast) {
+    PausedPlayback withVolume(int newVolume) {
+      return new PausedPlayback(streamUrl, track, newVolume, broadcast);
+    }
+  }
 
   private VoiceManager() {
     this.playerManager = new DefaultAudioPlayerManager();
-    this.players = new HashMap<>();
-    this.guildAudioManagers = new HashMap<>();
-    this.guildVoiceChannels = new HashMap<>();
-    this.guildPlayingTracks = new HashMap<>();
-    this.guildPlaybackStartTime = new HashMap<>();
+    this.players = new ConcurrentHashMap<>();
+    this.guildAudioManagers = new ConcurrentHashMap<>();
+    this.guildVoiceChannels = new ConcurrentHashMap<>();
+    this.guildPlayingTracks = new ConcurrentHashMap<>();
+    this.guildPlaybackStartTime = new ConcurrentHashMap<>();
 
     // Configure player manager
     playerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
     playerManager.registerSourceManager(new HttpAudioSourceManager());
+    // Report stalled streams early so the scheduler can restart them from the cache
+    playerManager.setTrackStuckThreshold(TRACK_STALL_THRESHOLD_MS);
+    this.trackCache = new StreamTrackCache(playerManager);
+    this.reconnectCoordinator = new StreamReconnectCoordinator(trackCache);
   }
 
   /**
@@ -62,9 +104,19 @@ public class VoiceManager {
    * @return AudioPlayer for the guild
    */
   public AudioPlayer getPlayer(Guild guild) {
-    return players.computeIfAbsent(guild.getIdLong(), id -> {
+    return getPlayer(guild.getIdLong());
+  }
+
+  /**
+   * Gets or creates an AudioPlayer by guild ID, for callers without a JDA guild (e.g. the load-test harness).
+   *
+   * @param guildId The guild ID
+   * @return AudioPlayer for the guild
+   */
+  AudioPlayer getPlayer(long guildId) {
+    return players.computeIfAbsent(guildId, id -> {
       AudioPlayer player = playerManager.createPlayer();
-      GuildAudioManager guildManager = new GuildAudioManager(player);
+      GuildAudioManager guildManager = new GuildAudioManager(player, id, stallThresholdMs);
       guildAudioManagers.put(id, guildManager);
       return player;
     });
@@ -77,41 +129,74 @@ public class VoiceManager {
    * @return GuildAudioManager for the guild
    */
   public GuildAudioManager getGuildAudioManager(Guild guild) {
-    return guildAudioManagers.get(guild.getIdLong());
+    return getGuildAudioManager(guild.getIdLong());
+  }
+
+  /**
+   * Gets the GuildAudioManager by guild ID.
+   *
+   * @param guildId The guild ID
+   * @return GuildAudioManager, or null if the guild has no player
+   */
+  GuildAudioManager getGuildAudioManager(long guildId) {
+    return guildAudioManagers.get(guildId);
+  }
+
+  /**
+   * Stops and destroys a guild's player without touching its voice connection or statistics.
+   *
+   * @param guildId The guild ID
+   */
+  void releasePlayer(long guildId) {
+    GuildAudioManager guildManager = guildAudioManagers.remove(guildId);
+    players.remove(guildId);
+    if (guildManager != null) {
+      guildManager.getScheduler().stopLooping();
+      guildManager.getPlayer().destroy();
+    }
   }
 
   /**
    * Connects to a voice channel.
+   * A guild that will play from a shared broadcast gets no player of its own;
+   * its sending handler is set once it joins the broadcast.
    *
-   * @param channel The voice channel to connect to
+   * @param channel   The voice channel to connect to
+   * @param broadcast true if the guild will play from a shared broadcast
    * @return true if connected successfully, false otherwise
    */
-  public boolean connectToVoiceChannel(VoiceChannel channel) {
+  public boolean connectToVoiceChannel(VoiceChannel channel, boolean broadcast) {
     try {
       Guild guild = channel.getGuild();
       AudioManager audioManager = guild.getAudioManager();
 
-      // Get or create player and guild manager for this guild
-      // This ensures both are created if they don't exist
-      getPlayer(guild);
-      GuildAudioManager guildManager = getGuildAudioManager(guild);
+      // Set the sending handler, guilds in broadcast mode read from their shared stream
+      BroadcastSendHandler broadcastHandler = broadcastHandlers.get(guild.getIdLong());
+      if (broadcastHandler != null) {
+        audioManager.setSendingHandler(broadcastHandler);
+      } else if (!broadcast) {
+        // Get or create player and guild manager for this guild
+        // This ensures both are created if they don't exist
+        getPlayer(guild);
+        GuildAudioManager guildManager = getGuildAudioManager(guild);
 
-      if (guildManager == null) {
-        logger.error("Failed to create guild audio manager");
-        return false;
+        if (guildManager == null) {
+          logger.error("Failed to create guild audio manager");
+          return false;
+        }
+        audioManager.setSendingHandler(guildManager.getSendHandler());
       }
 
-      // Set the sending handler
-      audioManager.setSendingHandler(guildManager.getSendHandler());
-
       // Connect to voice channel
       audioManager.openAudioConnection(channel);
 
       // Set self deafened to disable listening (only play audio, no listening icon)
       audioManager.setSelfDeafened(true);
 
-      // Store voice channel info for reconnection
+      // Store voice channel info for reconnection, also across restarts
       guildVoiceChannels.put(guild.getIdLong(), channel.getIdLong());
+      guildVoiceBots.put(guild.getIdLong(), guild.getJDA().getSelfUser().getIdLong());
+      saveVoiceSession(guild);
 
       logger.info("Connected to voice channel: {} in guild: {}",
           channel.getName(), guild.getName());
@@ -156,7 +241,10 @@ public class VoiceManager {
    */
   public void removeVoiceChannelInfo(Guild guild) {
     guildVoiceChannels.remove(guild.getIdLong());
+    guildVoiceBots.remove(guild.getIdLong());
     guildPlayingTracks.remove(guild.getIdLong());
+    restoredSessions.remove(guild.getIdLong());
+    forgetVoiceSession(guild.getIdLong());
   }
 
   /**
@@ -169,6 +257,78 @@ public class VoiceManager {
     return guild.getAudioManager().isConnected();
   }
 
+  /**
+   * Gets the tracker that pauses playback in channels without listeners.
+   *
+   * @return ListenerPresenceTracker
+   */
+  public ListenerPresenceTracker getPresenceTracker() {
+    return presenceTracker;
+  }
+
+  /**
+   * Gets the gap metrics of looped stream restarts.
+   *
+   * @return StreamGapMetrics
+   */
+  public StreamGapMetrics getStreamGapMetrics() {
+    return streamGapMetrics;
+  }
+
+  /**
+   * Sets how long a playing track may deliver no frames before it is restarted.
+   * Applies to players created afterwards.
+   *
+   * @param thresholdMs Stall threshold in milliseconds
+   */
+  public void setStallThresholdMs(long thresholdMs) {
+    this.stallThresholdMs = Math.max(StreamBroadcast.FRAME_INTERVAL_MS, thresholdMs);
+  }
+
+  /**
+   * Gets the stall counters of a guild's audio.
+   * Guilds in broadcast mode report the counters of their shared broadcast.
+   *
+   * @param guild The guild
+   * @return StallStats, or {@link StallStats#EMPTY} if the guild has no player
+   */
+  public StallStats getStallStats(Guild guild) {
+    BroadcastSendHandler broadcastHandler = broadcastHandlers.get(guild.getIdLong());
+    if (broadcastHandler != null) {
+      return broadcastHandler.getBroadcast().getStallStats();
+    }
+    GuildAudioManager guildManager = guildAudioManagers.get(guild.getIdLong());
+    return guildManager != null ? guildManager.getStallStats() : StallStats.EMPTY;
+  }
+
+  /**
+   * Gets the cache of resolved stream tracks. Streams should be loaded through it
+   * rather than through the player manager directly.
+   *
+   * @return StreamTrackCache
+   */
+  public StreamTrackCache getTrackCache() {
+    return trackCache;
+  }
+
+  /**
+   * Gets the scheduler that rejoins stored voice channels.
+   *
+   * @return VoiceReconnectScheduler
+   */
+  public VoiceReconnectScheduler getReconnectScheduler() {
+    return reconnectScheduler;
+  }
+
+  /**
+   * Gets the coordinator that reloads dropped streams.
+   *
+   * @return StreamReconnectCoordinator
+   */
+  public StreamReconnectCoordinator getReconnectCoordinator() {
+    return reconnectCoordinator;
+  }
+
   /**
    * Gets the AudioPlayerManager.
    *
@@ -200,12 +360,14 @@ public class VoiceManager {
       // Clamp volume to 0-100
       volume = Math.max(0, Math.min(100, volume));
 
-      AudioPlayer player = getPlayer(guild);
-      if (player != null) {
-        player.setVolume(volume);
-
-        // Save to database
-        DatabaseManager.getInstance().setGuildVolume(guild.getId(), volume);
+      if (applyVolume(guild, volume)) {
+        saveVoiceSession(guild);
+        // Save to database without blocking the calling (event) thread
+        DatabaseManager.getInstance().async().setGuildVolume(guild.getIdLong(), volume)
+            .exceptionally(error -> {
+              logger.error("Failed to save volume for guild: {}", guild.getName(), error);
+              return null;
+            });
 
         logger.info("Set volume to {}% for guild: {}", volume, guild.getName());
         return true;
@@ -216,6 +378,67 @@ public class VoiceManager {
     return false;
   }
 
+  /**
+   * Applies a volume to a guild's player, paused playback or broadcast without storing it.
+   *
+   * @param guild  The guild
+   * @param volume Volume (0-100)
+   * @return true if the guild has a player, paused playback or a broadcast
+   */
+  private boolean applyVolume(Guild guild, int volume) {
+    // Never create a player here: that would undo an idle eviction or give a broadcast guild an unused one
+    AudioPlayer player = players.get(guild.getIdLong());
+    if (player != null) {
+      player.setVolume(volume);
+    }
+    boolean paused = pausedPlayback.computeIfPresent(guild.getIdLong(),
+        (id, playback) -> playback.withVolume(volume)) != null;
+
+    // A broadcast guild moves to the broadcast for its new volume
+    BroadcastSendHandler broadcastHandler = broadcastHandlers.get(guild.getIdLong());
+    if (broadcastHandler != null) {
+      String streamUrl = broadcastHandler.getBroadcast().getKey().streamUrl();
+      playBroadcast(guild, streamUrl, volume).exceptionally(error -> {
+        logger.error("Failed to switch broadcast volume for guild: {}", guild.getName(), error);
+        return null;
+      });
+    }
+    return player != null || paused || broadcastHandler != null;
+  }
+
+  /**
+   * Checks if a guild is in low CPU mode.
+   *
+   * @param guild The guild
+   * @return Future with true if the guild plays at unity gain with Opus passthrough
+   */
+  public CompletableFuture<Boolean> isLowCpu(Guild guild) {
+    return DatabaseManager.getInstance().async().isGuildLowCpu(guild.getIdLong());
+  }
+
+  /**
+   * Turns low CPU mode on or off for a guild.
+   * In low CPU mode the player runs at unity gain, where lavaplayer forwards Opus
+   * source frames as they are instead of decoding and re-encoding them; the stored
+   * volume applies again once the mode is turned off.
+   *
+   * @param guild  The guild
+   * @param lowCpu Whether low CPU mode is on
+   * @return Future with the playback volume now in effect
+   */
+  public CompletableFuture<Integer> setLowCpu(Guild guild, boolean lowCpu) {
+    long guildId = guild.getIdLong();
+    return DatabaseManager.getInstance().async().setGuildLowCpu(guildId, lowCpu)
+        .thenApply(ignored -> {
+          int volume = DatabaseManager.getInstance().getGuildSettings(guildId).getPlaybackVolume();
+          applyVolume(guild, volume);
+          saveVoiceSession(guild);
+          logger.info("Turned low CPU mode {} for guild: {} ({}% volume)", lowCpu ? "on" : "off", guild.getName(),
+              volume);
+          return volume;
+        });
+  }
+
   /**
    * Gets the current volume for a guild's audio player.
    *
@@ -223,16 +446,21 @@ public class VoiceManager {
    * @return Current volume (0-100), or default from database if player not found
    */
   public int getVolume(Guild guild) {
-    try {
-      AudioPlayer player = getPlayer(guild);
-      if (player != null) {
-        return player.getVolume();
-      }
-    } catch (Exception e) {
-      logger.error("Failed to get volume", e);
+    PausedPlayback paused = pausedPlayback.get(guild.getIdLong());
+    if (paused != null) {
+      return paused.volume();
+    }
+    BroadcastSendHandler broadcastHandler = broadcastHandlers.get(guild.getIdLong());
+    if (broadcastHandler != null) {
+      return broadcastHandler.getBroadcast().getKey().volume();
+    }
+    // Don't create a player just to read its volume, a broadcast guild never uses it
+    AudioPlayer player = players.get(guild.getIdLong());
+    if (player != null) {
+      return player.getVolume();
     }
     // Fallback to database if player not initialized
-    return DatabaseManager.getInstance().getGuildVolume(guild.getId());
+    return DatabaseManager.getInstance().getGuildVolume(guild.getIdLong());
   }
 
   /**
@@ -242,21 +470,350 @@ public class VoiceManager {
    */
   public void cleanup(Guild guild) {
     // Record final playback time before cleanup
-    Long startTime = guildPlaybackStartTime.remove(guild.getIdLong());
+    recordPlaybackTime(guild.getIdLong());
+
+    presenceTracker.forget(guild.getIdLong());
+    pausedPlayback.remove(guild.getIdLong());
+    leaveBroadcast(guild.getIdLong());
+
+    GuildAudioManager guildManager = guildAudioManagers.remove(guild.getIdLong());
+    if (guildManager != null) {
+      guildManager.getScheduler().stopLooping(); // No reload may start the destroyed player again
+      guildManager.getPlayer().destroy();
+    }
+    players.remove(guild.getIdLong());
+    guildVoiceChannels.remove(guild.getIdLong());
+    guildVoiceBots.remove(guild.getIdLong());
+    guildPlayingTracks.remove(guild.getIdLong());
+    restoredSessions.remove(guild.getIdLong());
+    forgetVoiceSession(guild.getIdLong());
+  }
+
+  /**
+   * Records the playback time since the guild's last start and clears the start time.
+   *
+   * @param guildId The guild ID
+   */
+  private void recordPlaybackTime(long guildId) {
+    Long startTime = guildPlaybackStartTime.remove(guildId);
     if (startTime != null && startTime > 0) {
       long duration = (System.currentTimeMillis() / 1000) - startTime;
       if (duration > 0) {
-        DatabaseManager.getInstance().addGuildPlaybackTime(guild.getId(), duration);
+        DatabaseManager.getInstance().getStatsStorage().addGuildPlaybackTime(guildId, duration);
       }
     }
+  }
 
-    GuildAudioManager guildManager = guildAudioManagers.remove(guild.getIdLong());
+  /**
+   * Checks if a guild's playback is paused for lack of listeners.
+   *
+   * @param guild The guild
+   * @return true if paused
+   */
+  public boolean isPaused(Guild guild) {
+    return pausedPlayback.containsKey(guild.getIdLong());
+  }
+
+  /**
+   * Pauses playback in a guild while keeping the voice connection.
+   * The track is stopped rather than paused so the upstream connection is released;
+   * streams are reloaded and other tracks restart at their position on resume.
+   *
+   * @param guild The guild
+   * @return true if something was playing and is now paused
+   */
+  synchronized boolean pausePlayback(Guild guild) {
+    long guildId = guild.getIdLong();
+    if (pausedPlayback.containsKey(guildId)) {
+      return false;
+    }
+
+    BroadcastSendHandler broadcastHandler = broadcastHandlers.get(guildId);
+    if (broadcastHandler != null) {
+      StreamBroadcast.Key key = broadcastHandler.getBroadcast().getKey();
+      pausedPlayback.put(guildId, new PausedPlayback(key.streamUrl(), null, key.volume(), true));
+      leaveBroadcast(guildId);
+    } else {
+      GuildAudioManager guildManager = guildAudioManagers.get(guildId);
+      if (guildManager == null) {
+        return false;
+      }
+      AudioPlayer player = guildManager.getPlayer();
+      TrackScheduler scheduler = guildManager.getScheduler();
+      AudioTrack track = player.getPlayingTrack();
+      if (scheduler.isLooping() && scheduler.getStreamUrl() != null) {
+        // Also while the stream is down and waiting for a reload
+        pausedPlayback.put(guildId, new PausedPlayback(scheduler.getStreamUrl(), null, player.getVolume(), false));
+      } else if (track != null) {
+        AudioTrack resumeTrack = track.makeClone();
+        if (track.isSeekable()) {
+          resumeTrack.setPosition(track.getPosition());
+        }
+        pausedPlayback.put(guildId, new PausedPlayback(null, resumeTrack, player.getVolume(), false));
+      } else {
+        return false;
+      }
+      // Cancel pending reloads, resume arms them again
+      scheduler.stopLooping();
+      player.stopTrack(); // A stopped track does not trigger the scheduler's reload
+    }
+
+    guild.getAudioManager().setSendingHandler(null);
+    recordPlaybackTime(guildId);
+    logger.info("Paused playback in guild: {} (no listeners)", guild.getName());
+    return true;
+  }
+
+  /**
+   * Resumes playback paused by {@link #pausePlayback(Guild)}, recreating the player if it was evicted.
+   * A paused stream is looped again, which re-arms its reloads.
+   *
+   * @param guild The guild
+   */
+  synchronized void resumePlayback(Guild guild) {
+    long guildId = guild.getIdLong();
+    PausedPlayback paused = pausedPlayback.remove(guildId);
+    if (paused == null) {
+      return;
+    }
+
+    if (paused.broadcast()) {
+      playBroadcast(guild, paused.streamUrl(), paused.volume()).exceptionally(error -> {
+        logger.error("Failed to resume broadcast in guild: {}", guild.getName(), error);
+        return null;
+      });
+    } else {
+      AudioPlayer player = getPlayer(guild);
+      GuildAudioManager guildManager = getGuildAudioManager(guild);
+      guild.getAudioManager().setSendingHandler(guildManager.getSendHandler());
+      player.setVolume(paused.volume());
+      if (paused.streamUrl() != null) {
+        guildManager.getScheduler().setStreamUrl(paused.streamUrl());
+        guildManager.getScheduler().startStream();
+      } else {
+        player.startTrack(paused.track(), false);
+      }
+      guildPlaybackStartTime.put(guildId, System.currentTimeMillis() / 1000);
+    }
+    logger.info("Resumed playback in guild: {}", guild.getName());
+  }
+
+  /**
+   * Destroys the player of a paused guild while keeping its voice connection.
+   * A new player is created when playback resumes.
+   *
+   * @param guild The guild
+   */
+  synchronized void evictPlayer(Guild guild) {
+    long guildId = guild.getIdLong();
+    if (!pausedPlayback.containsKey(guildId)) {
+      return;
+    }
+    GuildAudioManager guildManager = guildAudioManagers.remove(guildId);
+    players.remove(guildId);
     if (guildManager != null) {
+      guildManager.getScheduler().stopLooping(); // No reload may start the destroyed player again
       guildManager.getPlayer().destroy();
+      logger.info("Released idle audio player in guild: {}", guild.getName());
     }
-    players.remove(guild.getIdLong());
-    guildVoiceChannels.remove(guild.getIdLong());
-    guildPlayingTracks.remove(guild.getIdLong());
+  }
+
+  /**
+   * Enables or disables broadcast mode for streams started afterwards.
+   *
+   * @param enabled true to share one player per stream URL and volume
+   */
+  public void setBroadcastEnabled(boolean enabled) {
+    this.broadcastEnabled = enabled;
+    logger.info("Broadcast mode {}", enabled ? "enabled" : "disabled");
+  }
+
+  /**
+   * Checks if streams should be played through shared broadcasts.
+   *
+   * @return true if broadcast mode is enabled
+   */
+  public boolean isBroadcastEnabled() {
+    return broadcastEnabled;
+  }
+
+  /**
+   * Checks if a guild is playing from a shared broadcast.
+   *
+   * @param guild The guild
+   * @return true if the guild is subscribed to a broadcast
+   */
+  public boolean isBroadcasting(Guild guild) {
+    return broadcastHandlers.containsKey(guild.getIdLong());
+  }
+
+  /**
+   * Plays a stream in a guild through the shared broadcast for its URL and volume.
+   * The broadcast is started if no other guild is playing it yet, and the guild
+   * leaves any broadcast it was on before.
+   *
+   * @param guild     The guild (must already be connected to a voice channel)
+   * @param streamUrl The stream URL
+   * @param volume    Volume (0-100)
+   * @return Future that completes once the stream is playing, or fails if it could not be loaded
+   */
+  public synchronized CompletableFuture<Void> playBroadcast(Guild guild, String streamUrl, int volume) {
+    long guildId = guild.getIdLong();
+    StreamBroadcast.Key key = new StreamBroadcast.Key(streamUrl, Math.max(0, Math.min(100, volume)));
+
+    StreamBroadcast broadcast = broadcasts.get(key);
+    if (broadcast == null) {
+      broadcast = new StreamBroadcast(key, playerManager, stallThresholdMs);
+      broadcasts.put(key, broadcast);
+      broadcast.start(trackCache, broadcastPump);
+    }
+
+    BroadcastSendHandler handler = broadcastHandlers.get(guildId);
+    if (handler == null) {
+      handler = new BroadcastSendHandler(broadcast);
+      broadcastHandlers.put(guildId, handler);
+    } else if (handler.getBroadcast() != broadcast) {
+      removeSubscriber(handler.getBroadcast(), guildId);
+      handler.setBroadcast(broadcast);
+    }
+    broadcast.getSubscribers().add(guildId);
+    guild.getAudioManager().setSendingHandler(handler);
+    guildPlaybackStartTime.putIfAbsent(guildId, System.currentTimeMillis() / 1000);
+    saveVoiceSession(guild);
+    logger.info("Guild {} joined broadcast of {} at {}% volume ({} guilds)", guild.getName(), streamUrl,
+        key.volume(), broadcast.getSubscribers().size());
+
+    StreamBroadcast joined = broadcast;
+    return broadcast.getReady().whenComplete((ignored, error) -> {
+      if (error != null) {
+        leaveBroadcast(guildId, joined);
+      }
+    });
+  }
+
+  /**
+   * Removes a guild from its broadcast, stopping the broadcast if no guild is left on it.
+   *
+   * @param guildId The guild ID
+   */
+  private synchronized void leaveBroadcast(long guildId) {
+    BroadcastSendHandler handler = broadcastHandlers.remove(guildId);
+    if (handler != null) {
+      removeSubscriber(handler.getBroadcast(), guildId);
+    }
+  }
+
+  /**
+   * Removes a guild from a broadcast that failed to load, unless it already moved to another one.
+   */
+  private synchronized void leaveBroadcast(long guildId, StreamBroadcast broadcast) {
+    BroadcastSendHandler handler = broadcastHandlers.get(guildId);
+    if (handler != null && handler.getBroadcast() == broadcast) {
+      leaveBroadcast(guildId);
+    }
+  }
+
+  private void removeSubscriber(StreamBroadcast broadcast, long guildId) {
+    broadcast.getSubscribers().remove(guildId);
+    if (broadcast.getSubscribers().isEmpty() && broadcasts.remove(broadcast.getKey(), broadcast)) {
+      broadcast.stop();
+    }
+  }
+
+  /**
+   * Stores what a guild is playing, so it can be rejoined after a restart.
+   * Only writes when the channel, stream or volume changed since the last save.
+   *
+   * @param guild The guild
+   */
+  public void saveVoiceSession(Guild guild) {
+    long guildId = guild.getIdLong();
+    Long channelId = guildVoiceChannels.get(guildId);
+    if (channelId == null) {
+      return;
+    }
+    String streamUrl = currentStreamUrl(guildId);
+    long botId = guildVoiceBots.getOrDefault(guildId, 0L);
+    DatabaseManager.getInstance().async().getGuildPlaybackVolume(guildId)
+        .thenAccept(volume -> {
+          if (!channelId.equals(guildVoiceChannels.get(guildId))) {
+            return; // Left or moved while the settings were read
+          }
+          VoiceSession session = new VoiceSession(guildId, channelId, streamUrl, volume, botId);
+          if (!session.equals(voiceSessions.put(guildId, session))) {
+            DatabaseManager.getInstance().async().saveVoiceSession(session);
+          }
+        })
+        .exceptionally(error -> {
+          logger.error("Failed to save voice session for guild: {}", guild.getName(), error);
+          return null;
+        });
+  }
+
+  /**
+   * Gets the stream a guild is looping, whether it plays it itself, through a broadcast or is paused.
+   *
+   * @param guildId The guild ID
+   * @return Stream URL, or null if the guild loops no stream
+   */
+  private String currentStreamUrl(long guildId) {
+    BroadcastSendHandler broadcastHandler = broadcastHandlers.get(guildId);
+    if (broadcastHandler != null) {
+      return broadcastHandler.getBroadcast().getKey().streamUrl();
+    }
+    PausedPlayback paused = pausedPlayback.get(guildId);
+    if (paused != null) {
+      return paused.streamUrl();
+    }
+    GuildAudioManager guildManager = guildAudioManagers.get(guildId);
+    return guildManager != null ? guildManager.getScheduler().getStreamUrl() : null;
+  }
+
+  private void forgetVoiceSession(long guildId) {
+    if (voiceSessions.remove(guildId) != null) {
+      DatabaseManager.getInstance().async().deleteVoiceSession(guildId);
+    }
+  }
+
+  /**
+   * Loads the voice sessions stored before the last shutdown, so the reconnect
+   * listener rejoins those channels once the bot is ready. Call before the bots start.
+   */
+  public void restoreVoiceSessions() {
+    List<VoiceSession> sessions = DatabaseManager.getInstance().loadVoiceSessions();
+    for (VoiceSession session : sessions) {
+      guildVoiceChannels.put(session.guildId(), session.channelId());
+      if (session.botId() != 0) {
+        guildVoiceBots.put(session.guildId(), session.botId());
+      }
+      voiceSessions.put(session.guildId(), session);
+      if (session.streamUrl() != null) {
+        restoredSessions.add(session.guildId());
+      }
+    }
+    logger.info("Restored {} voice session(s)", sessions.size());
+  }
+
+  /**
+   * Writes the current voice session of every guild. Called on shutdown, before
+   * the database is closed.
+   */
+  public void flushVoiceSessions() {
+    List<VoiceSession> sessions = new ArrayList<>();
+    for (Map.Entry<Long, Long> entry : guildVoiceChannels.entrySet()) {
+      long guildId = entry.getKey();
+      VoiceSession stored = voiceSessions.get(guildId);
+      String streamUrl = currentStreamUrl(guildId);
+      VoiceSession session = new VoiceSession(guildId, entry.getValue(),
+          streamUrl == null && stored != null && restoredSessions.contains(guildId) // Not rejoined yet
+              ? stored.streamUrl() : streamUrl,
+          DatabaseManager.getInstance().getGuildSettings(guildId).getPlaybackVolume(),
+          guildVoiceBots.getOrDefault(guildId, 0L));
+      voiceSessions.put(guildId, session);
+      sessions.add(session);
+    }
+    DatabaseManager.getInstance().saveVoiceSessions(sessions);
+    logger.info("Saved {} voice session(s)", sessions.size());
   }
 
   /**
@@ -269,6 +826,20 @@ public class VoiceManager {
     return guildVoiceChannels.get(guild.getIdLong());
   }
 
+  /**
+   * Claims a guild's stored voice channel for the bot the guild object belongs to.
+   * Only the bot that held the voice connection rejoins it, so bots sharing the guild
+   * do not both join and split one player's frames. A session stored without an
+   * owner goes to the first bot that claims it.
+   *
+   * @param guild The guild, as seen by the bot that wants to rejoin
+   * @return true if this bot should rejoin the stored channel
+   */
+  public boolean claimVoiceChannel(Guild guild) {
+    long botId = guild.getJDA().getSelfUser().getIdLong();
+    return guildVoiceBots.computeIfAbsent(guild.getIdLong(), id -> botId) == botId;
+  }
+
   /**
    * Gets the stored playing track for a guild (for resume after reconnection).
    *
@@ -279,6 +850,44 @@ public class VoiceManager {
     return guildPlayingTracks.get(guild.getIdLong());
   }
 
+  /**
+   * Checks if a guild is playing, paused or waiting for its looped stream to reload.
+   *
+   * @param guildId The guild ID
+   * @return true if the guild has playback that a reconnect must not start again
+   */
+  private boolean hasPlayback(long guildId) {
+    if (broadcastHandlers.containsKey(guildId) || pausedPlayback.containsKey(guildId)) {
+      return true;
+    }
+    GuildAudioManager guildManager = guildAudioManagers.get(guildId);
+    return guildManager != null
+        && (guildManager.getScheduler().isLooping() || guildManager.getPlayer().getPlayingTrack() != null);
+  }
+
+  /**
+   * Restarts the stream a guild was looping before the bot restarted.
+   *
+   * @param guild   The guild
+   * @param session The stored voice session
+   */
+  private void resumeStoredStream(Guild guild, VoiceSession session) {
+    if (broadcastEnabled) {
+      playBroadcast(guild, session.streamUrl(), session.volume()).exceptionally(error -> {
+        logger.error("Failed to resume broadcast after restart in guild: {}", guild.getName(), error);
+        return null;
+      });
+    } else {
+      GuildAudioManager guildManager = getGuildAudioManager(guild);
+      guildManager.getPlayer().setVolume(session.volume());
+      guildManager.getScheduler().setStreamUrl(session.streamUrl());
+      guildManager.getScheduler().startStream();
+    }
+    guildPlaybackStartTime.put(guild.getIdLong(), System.currentTimeMillis() / 1000);
+    presenceTracker.onVoiceUpdate(guild); // Pause again if nobody is listening
+    logger.info("Resumed stream after restart in guild: {} at {}% volume", guild.getName(), session.volume());
+  }
+
   /**
    * Attempts to reconnect to the stored voice channel and resume playback.
    *
@@ -300,18 +909,28 @@ public class VoiceManager {
         return false;
       }
 
-      // Reconnect to voice channel
-      if (!connectToVoiceChannel(channel)) {
+      // Reconnect to voice channel; a stored track was played by a per-guild player, so it needs one again
+      long guildId = guild.getIdLong();
+      AudioTrack storedTrack = getStoredPlayingTrack(guild);
+      if (!connectToVoiceChannel(channel, broadcastEnabled && storedTrack == null)) {
         return false;
       }
 
-      // Resume playback if there was a track playing
-      AudioTrack storedTrack = getStoredPlayingTrack(guild);
-      if (storedTrack != null) {
+      // Resume playback if there was a track playing; a paused guild is resumed by the presence tracker
+      VoiceSession session = voiceSessions.get(guildId);
+      if (isPaused(guild)) {
+        logger.debug("Reconnected paused guild: {}", guild.getName());
+      } else if (storedTrack == null) {
+        // First rejoin after a restart: only the stream URL survived. Later reconnects keep the live player.
+        if (restoredSessions.remove(guildId) && session != null && session.streamUrl() != null
+            && !hasPlayback(guildId)) {
+          resumeStoredStream(guild, session);
+        }
+      } else {
         GuildAudioManager guildManager = getGuildAudioManager(guild);
         if (guildManager != null) {
-          // Restore volume from database
-          int volume = DatabaseManager.getInstance().getGuildVolume(guild.getId());
+          // Restore volume from database, unity gain in low CPU mode
+          int volume = DatabaseManager.getInstance().getGuildSettings(guildId).getPlaybackVolume();
           guildManager.getPlayer().setVolume(volume);
 
           // Check if scheduler was looping
@@ -0,0 +1,298 @@
+package managers;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejoins stored voice channels after a gateway outage or restart.
+ * Guilds are queued and attempted at a paced rate (a token bucket per bot
+ * connection, since Discord rate limits voice state updates per gateway
+ * session), with at most a fixed number of connections being opened at once.
+ * A failed attempt is retried with exponential backoff until the attempt
+ * limit is reached. Every guild moves through PENDING, CONNECTING and then
+ * CONNECTED or FAILED, and the counts are available as a {@link Progress}.
+ * All state is owned by the scheduler thread, which publishes the progress
+ * and the per-guild states as immutable snapshots after every tick.
+ */
+public class VoiceReconnectScheduler {
+  private static final Logger logger = LoggerFactory.getLogger(VoiceReconnectScheduler.class);
+  private static final long TICK_MS = 50;
+  private static final long CONNECT_TIMEOUT_MS = 15_000;
+  private static final long BASE_BACKOFF_MS = 2000;
+  private static final long MAX_BACKOFF_MS = 60_000;
+  private static final int MAX_ATTEMPTS = 5;
+
+  /**
+   * Reconnect state of a guild.
+   */
+  public enum State {
+    PENDING, CONNECTING, CONNECTED, FAILED
+  }
+
+  /**
+   * Counts of the guilds in the current reconnect run.
+   *
+   * @param pending    Waiting for their (next) attempt
+   * @param connecting Attempted, waiting for the voice connection
+   * @param connected  Back in their channel
+   * @param failed     Given up on
+   * @param attempts   Connection attempts made
+   * @param elapsedMs  Time since the run started
+   */
+  public record Progress(int pending, int connecting, int connected, int failed, long attempts, long elapsedMs) {
+    public boolean isDone() {
+      return pending == 0 && connecting == 0;
+    }
+  }
+
+  /**
+   * A guild as seen by one bot connection; bots sharing a guild get separate entries.
+   */
+  private record Key(JDA jda, long guildId) {
+  }
+
+  private static final class Entry {
+    private final JDA jda;
+    private final long guildId;
+    private State state = State.PENDING;
+    private int attempts;
+    private long dueNanos; // Next attempt while PENDING, connect deadline while CONNECTING
+
+    private Entry(JDA jda, long guildId, long dueNanos) {
+      this.jda = jda;
+      this.guildId = guildId;
+      this.dueNanos = dueNanos;
+    }
+  }
+
+  /**
+   * Token bucket for one bot connection.
+   */
+  private final class TokenBucket {
+    private double tokens = burst;
+    private long refilledNanos = System.nanoTime();
+
+    private boolean tryTake(long now) {
+      tokens = Math.min(burst, tokens + (now - refilledNanos) / 1e9 * ratePerSecond);
+      refilledNanos = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+  }
+
+  private final VoiceManager voiceManager;
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "voice-reconnect");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Map<Key, Entry> entries = new HashMap<>();
+  private final Map<JDA, TokenBucket> buckets = new IdentityHashMap<>();
+  private volatile double ratePerSecond = 2;
+  private volatile double burst = 5;
+  private volatile int parallelism = 16;
+  private volatile Progress progress = new Progress(0, 0, 0, 0, 0, 0);
+  private volatile Map<Key, State> guildStates = Map.of(); // Snapshot of the entries' states
+  private long attempts;
+  private long runStartNanos;
+  private boolean running;
+
+  VoiceReconnectScheduler(VoiceManager voiceManager) {
+    this.voiceManager = voiceManager;
+    executor.scheduleWithFixedDelay(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Sets the pacing of reconnect attempts.
+   *
+   * @param ratePerSecond Attempts per second and bot connection
+   * @param parallelism   Connections being opened at the same time, across all bots
+   */
+  public void configure(double ratePerSecond, int parallelism) {
+    this.ratePerSecond = Math.max(0.1, ratePerSecond);
+    this.burst = Math.max(1, this.ratePerSecond * 2);
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Queues a guild for reconnection to its stored voice channel.
+   * A guild that is already queued or connecting for the same bot is left alone.
+   *
+   * @param guild   The guild
+   * @param delayMs Delay before the first attempt
+   */
+  public void schedule(Guild guild, long delayMs) {
+    JDA jda = guild.getJDA();
+    long guildId = guild.getIdLong();
+    Key key = new Key(jda, guildId);
+    long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+    executor.execute(() -> {
+      Entry entry = entries.get(key);
+      if (entry != null && (entry.state == State.PENDING || entry.state == State.CONNECTING)) {
+        return;
+      }
+      if (!running) {
+        // A new run: forget the outcome of the previous one
+        running = true;
+        runStartNanos = System.nanoTime();
+        attempts = 0;
+        entries.values().removeIf(old -> old.state != State.PENDING && old.state != State.CONNECTING);
+      }
+      entries.put(key, new Entry(jda, guildId, due));
+    });
+  }
+
+  /**
+   * Gets the reconnect state of a guild in the current (or last) run, as of the last tick.
+   *
+   * @param guild The guild, as seen by the bot that rejoins it
+   * @return State, or null if the guild was not scheduled for that bot
+   */
+  public State getState(Guild guild) {
+    return guildStates.get(new Key(guild.getJDA(), guild.getIdLong()));
+  }
+
+  /**
+   * Gets the progress of the current (or last) reconnect run.
+   *
+   * @return Progress
+   */
+  public Progress getProgress() {
+    return progress;
+  }
+
+  private void tick() {
+    try {
+      if (!running) {
+        return;
+      }
+      long now = System.nanoTime();
+      int connecting = 0;
+      List<Entry> due = new ArrayList<>();
+      for (Entry entry : entries.values()) {
+        if (entry.state == State.CONNECTING) {
+          connecting += checkConnecting(entry, now) ? 1 : 0;
+        }
+      }
+      for (Entry entry : entries.values()) {
+        if (entry.state == State.PENDING && entry.dueNanos <= now) {
+          due.add(entry);
+        }
+      }
+
+      // Oldest due first, bounded by parallelism and each bot's token bucket
+      due.sort((a, b) -> Long.compare(a.dueNanos, b.dueNanos));
+      for (Entry entry : due) {
+        if (connecting >= parallelism) {
+          break;
+        }
+        if (buckets.computeIfAbsent(entry.jda, jda -> new TokenBucket()).tryTake(now)) {
+          attempt(entry, now);
+          connecting += entry.state == State.CONNECTING ? 1 : 0;
+        }
+      }
+      updateProgress(now);
+    } catch (Exception e) {
+      logger.error("Error in voice reconnect scheduler", e);
+    }
+  }
+
+  /**
+   * Checks a connecting guild.
+   *
+   * @return true if it is still connecting
+   */
+  private boolean checkConnecting(Entry entry, long now) {
+    Guild guild = entry.jda.getGuildById(entry.guildId);
+    if (guild != null && voiceManager.isConnected(guild)) {
+      entry.state = State.CONNECTED;
+      return false;
+    }
+    if (now >= entry.dueNanos) {
+      retryOrFail(entry, now, "connection timed out");
+      return false;
+    }
+    return true;
+  }
+
+  private void attempt(Entry entry, long now) {
+    entry.attempts++;
+    attempts++;
+    Guild guild = entry.jda.getGuildById(entry.guildId);
+    if (guild == null) {
+      fail(entry, "guild is no longer available");
+      return;
+    }
+    if (voiceManager.isConnected(guild)) {
+      entry.state = State.CONNECTED;
+      return;
+    }
+
+    if (voiceManager.reconnectToVoiceChannel(guild)) {
+      entry.state = State.CONNECTING;
+      entry.dueNanos = now + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MS);
+    } else if (voiceManager.getStoredVoiceChannelId(guild) == null) {
+      fail(entry, "no stored voice channel"); // Channel was deleted or the bot was told to leave
+    } else {
+      retryOrFail(entry, now, "reconnect failed");
+    }
+  }
+
+  private void retryOrFail(Entry entry, long now, String reason) {
+    if (entry.attempts >= MAX_ATTEMPTS) {
+      fail(entry, reason + " after " + entry.attempts + " attempts");
+      return;
+    }
+    long delay = Backoff.jittered(BASE_BACKOFF_MS, MAX_BACKOFF_MS, entry.attempts);
+    entry.state = State.PENDING;
+    entry.dueNanos = now + TimeUnit.MILLISECONDS.toNanos(delay);
+    logger.warn("Voice reconnect of guild {} failed ({}), retrying in {} ms", entry.guildId, reason, delay);
+  }
+
+  private void fail(Entry entry, String reason) {
+    entry.state = State.FAILED;
+    logger.warn("Giving up voice reconnect of guild {}: {}", entry.guildId, reason);
+  }
+
+  private void updateProgress(long now) {
+    int pending = 0;
+    int connecting = 0;
+    int connected = 0;
+    int failed = 0;
+    Map<Key, State> states = new HashMap<>();
+    for (Map.Entry<Key, Entry> mapEntry : entries.entrySet()) {
+      Entry entry = mapEntry.getValue();
+      states.put(mapEntry.getKey(), entry.state);
+      switch (entry.state) {
+        case PENDING -> pending++;
+        case CONNECTING -> connecting++;
+        case CONNECTED -> connected++;
+        case FAILED -> failed++;
+      }
+    }
+    Progress current = new Progress(pending, connecting, connected, failed, attempts,
+        (now - runStartNanos) / 1_000_000);
+    progress = current;
+    guildStates = Collections.unmodifiableMap(states);
+    if (current.isDone()) {
+      running = false;
+      logger.info("Voice reconnect finished: {} connected, {} failed, {} attempts in {} ms", connected, failed,
+          attempts, current.elapsedMs());
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package managers;
+
+/**
+ * The voice channel a guild is playing in, kept across restarts.
+ *
+ * @param guildId   The guild ID
+ * @param channelId The voice channel ID
+ * @param streamUrl The looped stream URL, or null if no stream is looped
+ * @param volume    Playback volume (0-100)
+ * @param botId     Self user ID of the bot holding the voice connection, 0 if unknown
+ */
+record VoiceSession(long guildId, long channelId, String streamUrl, int volume, long botId) {
+}
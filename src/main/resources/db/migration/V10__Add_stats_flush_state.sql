@@ -0,0 +1,10 @@
+-- Record which write-behind stats flush was committed last
+
+-- Updated in the same transaction as the flushed rows, so a reader can tell from
+-- its own snapshot whether an in-flight batch is already part of the stored totals
+CREATE TABLE IF NOT EXISTS stats_flush_state (
+    id INTEGER NOT NULL PRIMARY KEY CHECK (id = 0),
+    flushed_seq INTEGER NOT NULL
+);
+
+INSERT OR IGNORE INTO stats_flush_state (id, flushed_seq) VALUES (0, 0);
@@ -0,0 +1,39 @@
+-- Add time-bucketed rollups for command and playback statistics
+
+-- Hourly buckets, used for short windows (last 24 hours)
+CREATE TABLE IF NOT EXISTS guild_stats_hourly (
+    guild_id TEXT NOT NULL,
+    bucket_start INTEGER NOT NULL,
+    command_count INTEGER NOT NULL DEFAULT 0,
+    playback_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (guild_id, bucket_start)
+) WITHOUT ROWID;
+
+-- Daily buckets, used for longer windows (last 7 / 30 days)
+CREATE TABLE IF NOT EXISTS guild_stats_daily (
+    guild_id TEXT NOT NULL,
+    bucket_start INTEGER NOT NULL,
+    command_count INTEGER NOT NULL DEFAULT 0,
+    playback_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (guild_id, bucket_start)
+) WITHOUT ROWID;
+
+-- Lifetime totals per guild
+CREATE TABLE IF NOT EXISTS guild_stats_totals (
+    guild_id TEXT NOT NULL PRIMARY KEY,
+    command_count INTEGER NOT NULL DEFAULT 0,
+    playback_seconds INTEGER NOT NULL DEFAULT 0
+) WITHOUT ROWID;
+
+-- Used to prune expired hourly buckets
+CREATE INDEX IF NOT EXISTS idx_guild_stats_hourly_bucket ON guild_stats_hourly(bucket_start);
+
+-- Backfill lifetime totals from the existing counters
+INSERT INTO guild_stats_totals (guild_id, command_count, playback_seconds)
+SELECT guild_id, SUM(command_count), SUM(playback_seconds)
+FROM (
+    SELECT guild_id, usage_count AS command_count, 0 AS playback_seconds FROM guild_command_stats
+    UNION ALL
+    SELECT guild_id, 0 AS command_count, total_playback_seconds AS playback_seconds FROM guild_music_stats
+)
+GROUP BY guild_id;
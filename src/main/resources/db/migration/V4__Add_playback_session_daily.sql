@@ -0,0 +1,14 @@
+-- Add daily aggregates for compacted playback sessions
+
+-- Closed sessions past the retention age are folded into one row per guild, user and UTC day
+CREATE TABLE IF NOT EXISTS playback_session_daily (
+    guild_id TEXT NOT NULL,
+    user_id TEXT NOT NULL,
+    day_start INTEGER NOT NULL,
+    session_count INTEGER NOT NULL DEFAULT 0,
+    listening_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (guild_id, user_id, day_start)
+) WITHOUT ROWID;
+
+-- Used by the compaction job to find expired closed sessions
+CREATE INDEX IF NOT EXISTS idx_playback_sessions_end_time ON playback_sessions(end_time);
@@ -0,0 +1,124 @@
+-- Store Discord snowflakes (guild and user IDs) as INTEGER instead of TEXT
+-- Tables keyed by a single guild ID use INTEGER PRIMARY KEY, which is the rowid itself.
+-- Tables with composite keys are clustered on the key with WITHOUT ROWID.
+
+-- guild_music_stats
+CREATE TABLE guild_music_stats_new (
+    guild_id INTEGER NOT NULL PRIMARY KEY,
+    total_playback_seconds INTEGER NOT NULL DEFAULT 0,
+    last_updated INTEGER NOT NULL DEFAULT (strftime('%s', 'now'))
+);
+INSERT INTO guild_music_stats_new (guild_id, total_playback_seconds, last_updated)
+SELECT CAST(guild_id AS INTEGER), total_playback_seconds, last_updated FROM guild_music_stats;
+DROP TABLE guild_music_stats;
+ALTER TABLE guild_music_stats_new RENAME TO guild_music_stats;
+
+-- guild_command_stats (the old guild index is covered by the primary key)
+CREATE TABLE guild_command_stats_new (
+    guild_id INTEGER NOT NULL,
+    command_name TEXT NOT NULL,
+    usage_count INTEGER NOT NULL DEFAULT 0,
+    last_used INTEGER NOT NULL DEFAULT (strftime('%s', 'now')),
+    PRIMARY KEY (guild_id, command_name)
+) WITHOUT ROWID;
+INSERT INTO guild_command_stats_new (guild_id, command_name, usage_count, last_used)
+SELECT CAST(guild_id AS INTEGER), command_name, usage_count, last_used FROM guild_command_stats;
+DROP TABLE guild_command_stats;
+ALTER TABLE guild_command_stats_new RENAME TO guild_command_stats;
+
+-- user_listening_stats (the old guild index is covered by the primary key)
+CREATE TABLE user_listening_stats_new (
+    guild_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    total_listening_seconds INTEGER NOT NULL DEFAULT 0,
+    last_updated INTEGER NOT NULL DEFAULT (strftime('%s', 'now')),
+    PRIMARY KEY (guild_id, user_id)
+) WITHOUT ROWID;
+INSERT INTO user_listening_stats_new (guild_id, user_id, total_listening_seconds, last_updated)
+SELECT CAST(guild_id AS INTEGER), CAST(user_id AS INTEGER), total_listening_seconds, last_updated
+FROM user_listening_stats;
+DROP TABLE user_listening_stats;
+ALTER TABLE user_listening_stats_new RENAME TO user_listening_stats;
+CREATE INDEX IF NOT EXISTS idx_user_listening_stats_user ON user_listening_stats(user_id);
+
+-- playback_sessions keeps its AUTOINCREMENT rowid, session IDs are handed out to callers
+CREATE TABLE playback_sessions_new (
+    session_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    guild_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    start_time INTEGER NOT NULL DEFAULT (strftime('%s', 'now')),
+    end_time INTEGER,
+    duration_seconds INTEGER
+);
+INSERT INTO playback_sessions_new (session_id, guild_id, user_id, start_time, end_time, duration_seconds)
+SELECT session_id, CAST(guild_id AS INTEGER), CAST(user_id AS INTEGER), start_time, end_time, duration_seconds
+FROM playback_sessions;
+DROP TABLE playback_sessions;
+ALTER TABLE playback_sessions_new RENAME TO playback_sessions;
+CREATE INDEX IF NOT EXISTS idx_playback_sessions_guild ON playback_sessions(guild_id);
+CREATE INDEX IF NOT EXISTS idx_playback_sessions_user ON playback_sessions(user_id);
+CREATE INDEX IF NOT EXISTS idx_playback_sessions_end_time ON playback_sessions(end_time);
+
+-- guild_volume_settings
+CREATE TABLE guild_volume_settings_new (
+    guild_id INTEGER NOT NULL PRIMARY KEY,
+    volume INTEGER NOT NULL DEFAULT 50,
+    last_updated INTEGER NOT NULL DEFAULT (strftime('%s', 'now'))
+);
+INSERT INTO guild_volume_settings_new (guild_id, volume, last_updated)
+SELECT CAST(guild_id AS INTEGER), volume, last_updated FROM guild_volume_settings;
+DROP TABLE guild_volume_settings;
+ALTER TABLE guild_volume_settings_new RENAME TO guild_volume_settings;
+
+-- guild_stats_hourly
+CREATE TABLE guild_stats_hourly_new (
+    guild_id INTEGER NOT NULL,
+    bucket_start INTEGER NOT NULL,
+    command_count INTEGER NOT NULL DEFAULT 0,
+    playback_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (guild_id, bucket_start)
+) WITHOUT ROWID;
+INSERT INTO guild_stats_hourly_new (guild_id, bucket_start, command_count, playback_seconds)
+SELECT CAST(guild_id AS INTEGER), bucket_start, command_count, playback_seconds FROM guild_stats_hourly;
+DROP TABLE guild_stats_hourly;
+ALTER TABLE guild_stats_hourly_new RENAME TO guild_stats_hourly;
+CREATE INDEX IF NOT EXISTS idx_guild_stats_hourly_bucket ON guild_stats_hourly(bucket_start);
+
+-- guild_stats_daily
+CREATE TABLE guild_stats_daily_new (
+    guild_id INTEGER NOT NULL,
+    bucket_start INTEGER NOT NULL,
+    command_count INTEGER NOT NULL DEFAULT 0,
+    playback_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (guild_id, bucket_start)
+) WITHOUT ROWID;
+INSERT INTO guild_stats_daily_new (guild_id, bucket_start, command_count, playback_seconds)
+SELECT CAST(guild_id AS INTEGER), bucket_start, command_count, playback_seconds FROM guild_stats_daily;
+DROP TABLE guild_stats_daily;
+ALTER TABLE guild_stats_daily_new RENAME TO guild_stats_daily;
+
+-- guild_stats_totals
+CREATE TABLE guild_stats_totals_new (
+    guild_id INTEGER NOT NULL PRIMARY KEY,
+    command_count INTEGER NOT NULL DEFAULT 0,
+    playback_seconds INTEGER NOT NULL DEFAULT 0
+);
+INSERT INTO guild_stats_totals_new (guild_id, command_count, playback_seconds)
+SELECT CAST(guild_id AS INTEGER), command_count, playback_seconds FROM guild_stats_totals;
+DROP TABLE guild_stats_totals;
+ALTER TABLE guild_stats_totals_new RENAME TO guild_stats_totals;
+
+-- playback_session_daily
+CREATE TABLE playback_session_daily_new (
+    guild_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    day_start INTEGER NOT NULL,
+    session_count INTEGER NOT NULL DEFAULT 0,
+    listening_seconds INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (guild_id, user_id, day_start)
+) WITHOUT ROWID;
+INSERT INTO playback_session_daily_new (guild_id, user_id, day_start, session_count, listening_seconds)
+SELECT CAST(guild_id AS INTEGER), CAST(user_id AS INTEGER), day_start, session_count, listening_seconds
+FROM playback_session_daily;
+DROP TABLE playback_session_daily;
+ALTER TABLE playback_session_daily_new RENAME TO playback_session_daily;
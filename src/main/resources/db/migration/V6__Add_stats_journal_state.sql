@@ -0,0 +1,7 @@
+-- Track how far each stats journal segment has been folded into the aggregates
+
+-- Updated in the same transaction as the folded rows, so a replay never applies a record twice
+CREATE TABLE IF NOT EXISTS stats_journal_segments (
+    segment_id INTEGER NOT NULL PRIMARY KEY,
+    folded_records INTEGER NOT NULL DEFAULT 0
+);
@@ -0,0 +1,5 @@
+-- Add the per-guild low CPU setting
+
+-- Guilds in low CPU mode play at unity gain, so lavaplayer can pass Opus frames
+-- through instead of re-encoding them; the stored volume is kept for when it is turned off
+ALTER TABLE guild_volume_settings ADD COLUMN low_cpu INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Add persisted voice sessions
+
+-- The voice channel each guild is playing in, with its looped stream and volume,
+-- so playback can be rejoined automatically after a restart
+CREATE TABLE IF NOT EXISTS voice_sessions (
+    guild_id INTEGER NOT NULL PRIMARY KEY,
+    channel_id INTEGER NOT NULL,
+    stream_url TEXT,
+    volume INTEGER NOT NULL,
+    last_updated INTEGER NOT NULL DEFAULT (strftime('%s', 'now'))
+);
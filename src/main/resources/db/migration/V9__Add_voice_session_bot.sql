@@ -0,0 +1,5 @@
+-- Add the owning bot to voice sessions
+
+-- Self user ID of the bot that held the voice connection, so after a restart only
+-- that bot rejoins the channel; 0 for sessions stored before the column existed
+ALTER TABLE voice_sessions ADD COLUMN bot_id INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,154 @@
+package bot;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.SelfMember;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Takes a bot of a three-bot cluster down and up again and checks where its guilds end up.
+ */
+class BotClusterFailoverTest {
+  private static final int GUILDS = 300;
+  private static final long FIRST_GUILD_ID = 1_000_000_000_000_000L;
+  private static final long GRACE_MS = 200;
+  private static final long TIMEOUT_MS = 5000;
+
+  private List<StubBot> bots;
+  private BotCluster cluster;
+  private Map<Long, BotInstance> initialPrimaries;
+
+  /**
+   * A bot in every guild, without voice connections, whose health is switched by the test.
+   */
+  private static final class StubBot extends BotInstance {
+    private final JDA jda = mock(JDA.class);
+    private volatile boolean healthy = true;
+
+    StubBot(String name) {
+      super(new BotInstanceConfig("token", "m/", null, name));
+      Guild guild = mock(Guild.class);
+      when(guild.getSelfMember()).thenReturn(mock(SelfMember.class));
+      when(jda.getGuildById(anyLong())).thenReturn(guild);
+    }
+
+    @Override
+    public JDA getJda() {
+      return jda;
+    }
+
+    @Override
+    public boolean isHealthy() {
+      return healthy;
+    }
+
+    @Override
+    public long getGatewayPing() {
+      return 50;
+    }
+
+    @Override
+    public int getActiveVoiceConnections() {
+      return 0;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    bots = List.of(new StubBot("bot-a"), new StubBot("bot-b"), new StubBot("bot-c"));
+    cluster = new BotCluster(new ArrayList<>(bots), false);
+    cluster.setFailoverGraceMs(GRACE_MS);
+
+    initialPrimaries = new HashMap<>();
+    for (long guildId = FIRST_GUILD_ID; guildId < FIRST_GUILD_ID + GUILDS; guildId++) {
+      for (StubBot bot : bots) {
+        cluster.shouldRespond(bot, guildId);
+      }
+      initialPrimaries.put(guildId, cluster.getPrimaryBot(guildId));
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    cluster.shutdown();
+  }
+
+  @Test
+  void guildsReturnToTheirBotAfterRecovery() throws InterruptedException {
+    StubBot failed = bots.get(0);
+    long owned = initialPrimaries.values().stream().filter(bot -> bot == failed).count();
+    assertTrue(owned > 0, "bot-a should own some guilds");
+
+    setHealthy(failed, false);
+    awaitTrue(() -> cluster.getFailoverStats().failovers() == 1, "failover");
+    assertEquals(owned, cluster.getFailoverStats().guildsMoved());
+    for (long guildId : initialPrimaries.keySet()) {
+      assertFalse(cluster.shouldRespond(failed, guildId));
+      assertEquals(1, respondingBots(guildId));
+    }
+
+    setHealthy(failed, true);
+    awaitTrue(() -> initialPrimaries.entrySet().stream()
+        .allMatch(entry -> cluster.getPrimaryBot(entry.getKey()) == entry.getValue()), "guilds to return");
+  }
+
+  @Test
+  void briefOutageDoesNotMoveGuilds() throws InterruptedException {
+    StubBot failed = bots.get(0);
+    setHealthy(failed, false);
+
+    // Another bot answers while the failed bot is within its grace period
+    for (long guildId : initialPrimaries.keySet()) {
+      assertFalse(cluster.shouldRespond(failed, guildId));
+      assertEquals(1, respondingBots(guildId));
+    }
+
+    setHealthy(failed, true);
+    Thread.sleep(GRACE_MS * 3);
+    assertEquals(0, cluster.getFailoverStats().failovers());
+    for (Map.Entry<Long, BotInstance> entry : initialPrimaries.entrySet()) {
+      assertEquals(entry.getValue(), cluster.getPrimaryBot(entry.getKey()));
+      assertTrue(cluster.shouldRespond(entry.getValue(), entry.getKey()));
+    }
+  }
+
+  private void setHealthy(StubBot bot, boolean healthy) {
+    bot.healthy = healthy;
+    cluster.refreshHealth(); // What the bot's status change event does
+  }
+
+  private int respondingBots(long guildId) {
+    int responding = 0;
+    for (StubBot bot : bots) {
+      if (cluster.shouldRespond(bot, guildId)) {
+        responding++;
+      }
+    }
+    return responding;
+  }
+
+  private static void awaitTrue(BooleanSupplier condition, String what) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Timed out waiting for " + what);
+      }
+      Thread.sleep(10);
+    }
+  }
+}
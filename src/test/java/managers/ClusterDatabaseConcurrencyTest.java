@@ -0,0 +1,111 @@
+package managers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs several simulated bot instances against one database and checks that
+ * no call fails and every write is counted.
+ * Each bot has a few event threads and serves its own range of guilds, like
+ * ClusterDatabaseBenchmark, but with a fixed number of operations.
+ */
+class ClusterDatabaseConcurrencyTest {
+  private static final int BOTS = 4;
+  private static final int THREADS_PER_BOT = 4;
+  private static final int OPERATIONS_PER_THREAD = 200;
+  private static final int GUILDS_PER_BOT = 25;
+  private static final int USERS = 1000;
+
+  @TempDir
+  Path dir;
+  private DatabaseManager databaseManager;
+
+  @BeforeEach
+  void setUp() {
+    databaseManager = new DatabaseManager(dir.resolve("bot.db").toString());
+  }
+
+  @AfterEach
+  void tearDown() {
+    databaseManager.close();
+  }
+
+  @Test
+  void botsSharingTheDatabaseLoseNoCalls() throws Exception {
+    AtomicInteger failedCalls = new AtomicInteger();
+    ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+
+    for (int bot = 0; bot < BOTS; bot++) {
+      long firstGuildId = 1 + (long) bot * GUILDS_PER_BOT;
+      int volume = 10 + bot * 10; // Only this bot writes its guilds, so a read must see its value
+      for (int i = 0; i < THREADS_PER_BOT; i++) {
+        Thread thread = new Thread(() -> {
+          try {
+            start.await();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+              long guildId = firstGuildId + random.nextInt(GUILDS_PER_BOT);
+              long sessionId = databaseManager.startPlaybackSession(guildId, random.nextLong(1, USERS + 1));
+              if (sessionId < 0) {
+                failedCalls.incrementAndGet();
+              } else {
+                databaseManager.endPlaybackSession(sessionId);
+              }
+              databaseManager.recordCommandUsage(guildId, "lofi");
+              databaseManager.getTopListeners(guildId, 10);
+              databaseManager.setGuildVolume(guildId, volume);
+              if (databaseManager.getGuildVolume(guildId) != volume) {
+                failedCalls.incrementAndGet();
+              }
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        }, "bot-" + bot + "-events-" + i);
+        threads.add(thread);
+        thread.start();
+      }
+    }
+
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(errors.isEmpty(), () -> "Event thread failed: " + errors.peek());
+    assertEquals(0, failedCalls.get());
+
+    long operations = (long) BOTS * THREADS_PER_BOT * OPERATIONS_PER_THREAD;
+    databaseManager.flush();
+    long commands = 0;
+    for (long guildId = 1; guildId <= (long) BOTS * GUILDS_PER_BOT; guildId++) {
+      commands += databaseManager.getTotalCommandUsage(guildId);
+    }
+    assertEquals(operations, commands);
+    assertEquals(operations, databaseManager.getDatabaseStats().sessionRows());
+    assertEquals(operations, (long) databaseManager.read(conn -> {
+      try (PreparedStatement stmt = conn.prepareStatement(
+          "SELECT COUNT(*) FROM playback_sessions WHERE end_time IS NOT NULL");
+          ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? rs.getLong(1) : 0L;
+      }
+    }));
+  }
+}
@@ -0,0 +1,68 @@
+package managers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Journals command usage and checks the names that are folded into the database.
+ */
+class JournalStatsStorageTest {
+  private static final long GUILD_ID = 42;
+
+  @TempDir
+  Path dir;
+  private DatabaseManager databaseManager;
+  private JournalStatsStorage journal;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(dir.resolve("bot.db").toString());
+    journal = new JournalStatsStorage(databaseManager, dir.resolve("journal"));
+    journal.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    journal.close();
+    databaseManager.close();
+  }
+
+  @Test
+  void longNameIsCutAtCharacterBoundary() throws Exception {
+    // 31 ASCII bytes followed by a two-byte character that does not fit in 32 bytes
+    String prefix = "a".repeat(31);
+    journal.recordCommandUsage(GUILD_ID, prefix + "é");
+    journal.flush();
+
+    assertEquals(prefix, commandName());
+  }
+
+  @Test
+  void nameThatFitsIsKept() throws Exception {
+    String name = "lofi-é";
+    journal.recordCommandUsage(GUILD_ID, name);
+    journal.flush();
+
+    assertEquals(name, commandName());
+  }
+
+  private String commandName() throws Exception {
+    return databaseManager.read(conn -> {
+      try (PreparedStatement stmt = conn.prepareStatement("SELECT command_name FROM guild_command_stats WHERE guild_id = ?")) {
+        stmt.setLong(1, GUILD_ID);
+        try (ResultSet rs = stmt.executeQuery()) {
+          rs.next();
+          return rs.getString(1);
+        }
+      }
+    });
+  }
+}
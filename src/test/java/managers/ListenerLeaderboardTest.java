@@ -0,0 +1,77 @@
+package managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Applies listening totals to a board while it is being loaded.
+ */
+class ListenerLeaderboardTest {
+  private static final long GUILD_ID = 42;
+
+  @Test
+  void updatesDuringLoadAreKept() {
+    ListenerLeaderboard leaderboard = new ListenerLeaderboard(3);
+    ListenerLeaderboard.PendingLoad pending = leaderboard.beginLoad(GUILD_ID);
+
+    // Committed after the load's read: a new user, and a newer total for a loaded user
+    leaderboard.update(GUILD_ID, 4, 250);
+    leaderboard.update(GUILD_ID, 2, 400);
+    assertNull(leaderboard.getTop(GUILD_ID, 3));
+
+    leaderboard.load(GUILD_ID, pending, List.of(
+        new ListenerStat(1, 300), new ListenerStat(2, 200), new ListenerStat(3, 100)));
+
+    assertEquals(List.of(new ListenerStat(2, 400), new ListenerStat(1, 300), new ListenerStat(4, 250)),
+        leaderboard.getTop(GUILD_ID, 3));
+  }
+
+  @Test
+  void staleUpdateDoesNotLowerLoadedTotal() {
+    ListenerLeaderboard leaderboard = new ListenerLeaderboard(3);
+    ListenerLeaderboard.PendingLoad pending = leaderboard.beginLoad(GUILD_ID);
+
+    // Committed before the load's read, applied after it began
+    leaderboard.update(GUILD_ID, 1, 150);
+    leaderboard.load(GUILD_ID, pending, List.of(new ListenerStat(1, 300)));
+
+    assertEquals(List.of(new ListenerStat(1, 300)), leaderboard.getTop(GUILD_ID, 3));
+  }
+
+  @Test
+  void updateRacingLoadIsKept() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int i = 0; i < 20_000; i++) {
+        ListenerLeaderboard leaderboard = new ListenerLeaderboard(3);
+        ListenerLeaderboard.PendingLoad pending = leaderboard.beginLoad(GUILD_ID);
+        CyclicBarrier start = new CyclicBarrier(2);
+
+        Future<?> load = executor.submit(() -> {
+          start.await();
+          leaderboard.load(GUILD_ID, pending, List.of(new ListenerStat(1, 100)));
+          return null;
+        });
+        Future<?> update = executor.submit(() -> {
+          start.await();
+          leaderboard.update(GUILD_ID, 1, 200);
+          return null;
+        });
+        load.get();
+        update.get();
+
+        assertEquals(List.of(new ListenerStat(1, 200)), leaderboard.getTop(GUILD_ID, 3), "iteration " + i);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
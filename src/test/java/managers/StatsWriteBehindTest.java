@@ -0,0 +1,68 @@
+package managers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads guild stats while increments are recorded and flushed concurrently.
+ */
+class StatsWriteBehindTest {
+  private static final long GUILD_ID = 42;
+  private static final int INCREMENTS = 5000;
+
+  @TempDir
+  Path dir;
+  private DatabaseManager databaseManager;
+
+  @BeforeEach
+  void setUp() {
+    databaseManager = new DatabaseManager(dir.resolve("bot.db").toString());
+  }
+
+  @AfterEach
+  void tearDown() {
+    databaseManager.close();
+  }
+
+  @Test
+  void countsNeverGoBackwardsDuringFlushes() throws InterruptedException {
+    AtomicBoolean done = new AtomicBoolean();
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < INCREMENTS; i++) {
+        databaseManager.recordCommandUsage(GUILD_ID, "lofi");
+      }
+      done.set(true);
+    });
+    Thread flusher = new Thread(() -> {
+      while (!done.get()) {
+        databaseManager.flush();
+      }
+    });
+    writer.start();
+    flusher.start();
+
+    long previous = 0;
+    int reads = 0;
+    while (!done.get() || reads == 0) {
+      for (StatsWindow window : new StatsWindow[] {StatsWindow.ALL_TIME, StatsWindow.LAST_24_HOURS}) {
+        long count = databaseManager.getGuildStats(GUILD_ID, window).commandCount();
+        assertTrue(count >= previous, window + " count went from " + previous + " to " + count);
+        previous = count;
+      }
+      reads++;
+    }
+    writer.join();
+    flusher.join();
+
+    databaseManager.flush();
+    assertEquals(INCREMENTS, databaseManager.getTotalCommandUsage(GUILD_ID));
+  }
+}
@@ -0,0 +1,77 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Invalidates a URL while its load is in flight and checks the stale track is not cached.
+ */
+class StreamTrackCacheTest {
+  private static final String URL = "https://example.com/lofi";
+
+  private AudioPlayerManager playerManager;
+  private StreamTrackCache cache;
+
+  @BeforeEach
+  void setUp() {
+    playerManager = mock(AudioPlayerManager.class);
+    cache = new StreamTrackCache(playerManager);
+  }
+
+  @Test
+  void loadInFlightDuringInvalidateIsNotCached() {
+    AudioLoadResultHandler first = mock(AudioLoadResultHandler.class);
+    cache.load(URL, first);
+    cache.invalidate(URL);
+
+    // A caller after the invalidate starts its own load instead of joining the stale one
+    AudioLoadResultHandler second = mock(AudioLoadResultHandler.class);
+    cache.load(URL, second);
+    List<AudioLoadResultHandler> loads = captureLoads(2);
+
+    loads.get(0).trackLoaded(track());
+    verify(first).trackLoaded(any());
+    verify(second, times(0)).trackLoaded(any());
+
+    // The stale result was not cached, so the next caller joins the fresh load
+    AudioLoadResultHandler third = mock(AudioLoadResultHandler.class);
+    cache.load(URL, third);
+    captureLoads(2);
+
+    loads.get(1).trackLoaded(track());
+    verify(second).trackLoaded(any());
+    verify(third).trackLoaded(any());
+
+    // Now the fresh track is served from the cache
+    AudioLoadResultHandler fourth = mock(AudioLoadResultHandler.class);
+    cache.load(URL, fourth);
+    verify(fourth).trackLoaded(any());
+    assertEquals(1, cache.getHits());
+  }
+
+  private List<AudioLoadResultHandler> captureLoads(int expected) {
+    ArgumentCaptor<AudioLoadResultHandler> captor = ArgumentCaptor.forClass(AudioLoadResultHandler.class);
+    verify(playerManager, times(expected)).loadItem(eq(URL), captor.capture());
+    return captor.getAllValues();
+  }
+
+  private static AudioTrack track() {
+    AudioTrack track = mock(AudioTrack.class);
+    when(track.makeClone()).thenReturn(mock(AudioTrack.class));
+    return track;
+  }
+}
@@ -0,0 +1,180 @@
+package managers;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.local.LocalAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.SelfUser;
+import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
+import net.dv8tion.jda.api.managers.AudioManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconnects guilds that were playing a track, checking the volume the player comes back with
+ * and which bot rejoins a guild that several bots share.
+ */
+class VoiceManagerReconnectTest {
+  private static final long LOW_CPU_GUILD_ID = 900_000_000_000_001L;
+  private static final long NORMAL_GUILD_ID = 900_000_000_000_002L;
+  private static final long SHARED_GUILD_ID = 900_000_000_000_003L;
+  private static final long CHANNEL_ID = 900_000_000_000_100L;
+  private static final long BOT_ID = 900_000_000_000_200L;
+  private static final int STORED_VOLUME = 50;
+
+  private static DatabaseManager databaseManager;
+  private static AudioPlayerManager fileManager;
+  private static AudioTrack track;
+
+  @BeforeAll
+  static void setUp(@TempDir Path dir) throws Exception {
+    databaseManager = new DatabaseManager(dir.resolve("bot.db").toString());
+    DatabaseManager.setInstance(databaseManager);
+
+    Path wav = dir.resolve("silence.wav");
+    Files.write(wav, silentWav(2));
+    fileManager = new DefaultAudioPlayerManager();
+    fileManager.registerSourceManager(new LocalAudioSourceManager());
+
+    CompletableFuture<AudioTrack> loaded = new CompletableFuture<>();
+    fileManager.loadItem(wav.toString(), new AudioLoadResultHandler() {
+      @Override
+      public void trackLoaded(AudioTrack loadedTrack) {
+        loaded.complete(loadedTrack);
+      }
+
+      @Override
+      public void playlistLoaded(AudioPlaylist playlist) {
+        loaded.completeExceptionally(new IllegalStateException("Unexpected playlist"));
+      }
+
+      @Override
+      public void noMatches() {
+        loaded.completeExceptionally(new IllegalStateException("No matches for " + wav));
+      }
+
+      @Override
+      public void loadFailed(FriendlyException exception) {
+        loaded.completeExceptionally(exception);
+      }
+    });
+    track = loaded.get(10, TimeUnit.SECONDS);
+  }
+
+  @AfterAll
+  static void shutDown() {
+    fileManager.shutdown();
+    DatabaseManager.setInstance(null);
+    databaseManager.close();
+  }
+
+  @Test
+  void reconnectKeepsUnityGainInLowCpuMode() {
+    databaseManager.setGuildVolume(LOW_CPU_GUILD_ID, STORED_VOLUME);
+    databaseManager.setGuildLowCpu(LOW_CPU_GUILD_ID, true);
+
+    assertEquals(GuildSettings.UNITY_VOLUME, reconnect(LOW_CPU_GUILD_ID));
+  }
+
+  @Test
+  void reconnectRestoresStoredVolume() {
+    databaseManager.setGuildVolume(NORMAL_GUILD_ID, STORED_VOLUME);
+    databaseManager.setGuildLowCpu(NORMAL_GUILD_ID, false);
+
+    assertEquals(STORED_VOLUME, reconnect(NORMAL_GUILD_ID));
+  }
+
+  @Test
+  void onlyOneBotRejoinsASharedGuild() {
+    VoiceManager voiceManager = VoiceManager.getInstance();
+    Guild first = guildOf(SHARED_GUILD_ID, BOT_ID);
+    Guild second = guildOf(SHARED_GUILD_ID, BOT_ID + 1);
+
+    try {
+      assertTrue(voiceManager.claimVoiceChannel(first));
+      assertFalse(voiceManager.claimVoiceChannel(second));
+      assertTrue(voiceManager.claimVoiceChannel(first));
+    } finally {
+      voiceManager.cleanup(first);
+    }
+  }
+
+  /**
+   * Mocks a guild as seen by one bot.
+   */
+  private static Guild guildOf(long guildId, long botId) {
+    Guild guild = mock(Guild.class);
+    JDA jda = mock(JDA.class);
+    SelfUser selfUser = mock(SelfUser.class);
+    when(jda.getSelfUser()).thenReturn(selfUser);
+    when(selfUser.getIdLong()).thenReturn(botId);
+    when(guild.getJDA()).thenReturn(jda);
+    when(guild.getIdLong()).thenReturn(guildId);
+    when(guild.getName()).thenReturn("guild-" + guildId);
+    return guild;
+  }
+
+  /**
+   * Plays the test track in a guild, drops its voice connection and reconnects it.
+   *
+   * @param guildId The guild ID
+   * @return Player volume after the reconnect
+   */
+  private static int reconnect(long guildId) {
+    VoiceManager voiceManager = VoiceManager.getInstance();
+    AudioManager audioManager = mock(AudioManager.class);
+    Guild guild = guildOf(guildId, BOT_ID);
+    VoiceChannel channel = mock(VoiceChannel.class);
+    when(guild.getAudioManager()).thenReturn(audioManager);
+    when(guild.getVoiceChannelById(CHANNEL_ID)).thenReturn(channel);
+    when(channel.getGuild()).thenReturn(guild);
+    when(channel.getIdLong()).thenReturn(CHANNEL_ID);
+    when(channel.getName()).thenReturn("radio");
+
+    try {
+      assertTrue(voiceManager.connectToVoiceChannel(channel, false));
+      voiceManager.getPlayer(guild).playTrack(track.makeClone());
+      when(audioManager.isConnected()).thenReturn(true);
+      voiceManager.disconnectFromVoiceChannel(guild);
+      when(audioManager.isConnected()).thenReturn(false);
+
+      assertTrue(voiceManager.reconnectToVoiceChannel(guild));
+      return voiceManager.getPlayer(guild).getVolume();
+    } finally {
+      voiceManager.cleanup(guild);
+    }
+  }
+
+  /**
+   * Builds a WAV file of 16-bit stereo silence.
+   */
+  private static byte[] silentWav(int seconds) {
+    int dataSize = 48000 * 4 * seconds;
+    ByteBuffer wav = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+    wav.put("RIFF".getBytes()).putInt(dataSize + 36).put("WAVE".getBytes());
+    wav.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 2).putInt(48000)
+        .putInt(48000 * 4).putShort((short) 4).putShort((short) 16);
+    wav.put("data".getBytes()).putInt(dataSize);
+    return wav.array();
+  }
+}